@@ -0,0 +1,188 @@
+/* *
+ * Luke McDougall
+ *
+ * Thread safe hash table made of independently locked DSAHashTable segments.
+ * A key's segment is picked from the top bits of a mix of String.hashCode().
+ * DSAHashTable mixes String.hashCode() with different constants inside a
+ * segment, so keys in the same segment still spread over its slots.
+ *
+ * Each segment has its own read/write lock. get and containsKey take the read
+ * lock so any number of readers share a segment, while put and remove take
+ * the write lock. Segments resize on their own, so a resize only holds up
+ * threads using that one segment.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+public class DSAConcurrentHashTable<T>
+{
+    //Segments per core when no concurrency level is given
+    private static final int SEGMENTS_PER_CORE = 4;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private DSAHashTable<T>[] segments;
+    private ReentrantReadWriteLock[] locks;
+    private int shift;
+
+    public DSAConcurrentHashTable(int maxSize)
+    {
+        this(maxSize, SEGMENTS_PER_CORE * Runtime.getRuntime().availableProcessors());
+    }
+
+    /* Constructor
+     * Import: int maxSize, int concurrency
+     * Splits maxSize over at least concurrency segments (rounded up to a power of 2).
+     */
+    //Java can't make a generic array, so the segments are a raw array cast to DSAHashTable<T>[]
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DSAConcurrentHashTable(int maxSize, int concurrency)
+    {
+        if(maxSize < 1)
+        {
+            throw new IllegalArgumentException("Max size must be positive.");
+        }
+        if(concurrency < 1)
+        {
+            throw new IllegalArgumentException("Concurrency level must be positive.");
+        }
+        int count = 1;
+        while(count < concurrency && count < MAX_SEGMENTS)
+        {
+            count *= 2;
+        }
+        shift = 32 - Integer.numberOfTrailingZeros(count);
+        segments = (DSAHashTable<T>[])new DSAHashTable[count];
+        locks = new ReentrantReadWriteLock[count];
+        int segmentSize = Math.max(1, maxSize / count);
+        for(int i = 0; i < count; i++)
+        {
+            segments[i] = new DSAHashTable<T>(segmentSize);
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /* Function: segmentFor
+     * Import: String key
+     * Export: int index
+     * Returns the segment the key belongs in.
+     */
+    private int segmentFor(String key)
+    {
+        int h = key.hashCode() * 0x9E3779B9;
+        h ^= h >>> 15;
+        //Shifting an int by 32 does nothing so a single segment is special
+        return (shift == 32) ? 0 : (h * 0x85EBCA6B) >>> shift;
+    }
+
+    /* Function: put
+     * Import: String key, T value
+     * Export: None
+     * Inserts the value and key into the key's segment.
+     */
+    public void put(String key, T value)
+    {
+        int s = segmentFor(key);
+        Lock lock = locks[s].writeLock();
+        lock.lock();
+        try
+        {
+            segments[s].put(key, value);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /* Function: get
+     * Import: String key
+     * Export: T value
+     * Returns value stored under key. Throws exception if there isn't one.
+     */
+    public T get(String key)
+    {
+        int s = segmentFor(key);
+        Lock lock = locks[s].readLock();
+        lock.lock();
+        try
+        {
+            return segments[s].get(key);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /* Function: containsKey
+     * Import: String key
+     * Export: boolean present
+     * Returns true if passed key exists in table.
+     */
+    public boolean containsKey(String key)
+    {
+        int s = segmentFor(key);
+        Lock lock = locks[s].readLock();
+        lock.lock();
+        try
+        {
+            return segments[s].containsKey(key);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /* Function: remove
+     * Import: String key
+     * Export: None
+     * Removes key and its value. Throws exception if key isn't present.
+     */
+    public void remove(String key)
+    {
+        int s = segmentFor(key);
+        Lock lock = locks[s].writeLock();
+        lock.lock();
+        try
+        {
+            segments[s].remove(key);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /* Function: getSize
+     * Import: None
+     * Export: int size
+     * Returns the number of entries. Segments are counted one at a time so
+     * the total may be stale if other threads are changing the table.
+     */
+    public int getSize()
+    {
+        int size = 0;
+        for(int i = 0; i < segments.length; i++)
+        {
+            Lock lock = locks[i].readLock();
+            lock.lock();
+            try
+            {
+                size += segments[i].getSize();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public int getSegmentCount()
+    {
+        return segments.length;
+    }
+}
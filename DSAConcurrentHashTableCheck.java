@@ -0,0 +1,227 @@
+/* *
+ * Luke McDougall
+ *
+ * Equivalence check for DSAConcurrentHashTable. Several threads run random
+ * puts, gets, containsKey and removes at once, each on a key range of its
+ * own and all of them on one shared range, then the table's final contents
+ * are compared with a reference. Stops with an exception at the first
+ * difference.
+ *
+ * A thread's own keys are only touched by that thread, so it checks every
+ * result against its own HashMap as it goes. Shared keys are changed under
+ * a lock per key held by the check (not the table), so the reference and
+ * the table see each key's changes in the same order while different keys,
+ * in the same segment or not, are still changed at once. Threads also read
+ * shared keys without that lock, which may race with a change, so those
+ * reads are only checked to return a value that was put under that key.
+ * Tables start small so segments resize while other threads use them.
+ *
+ * Usage: java DSAConcurrentHashTableCheck [threads] [ops] [seed]
+ *
+ * Last updated 18/10/2026
+ * */
+import java.util.*;
+import java.util.concurrent.*;
+
+public class DSAConcurrentHashTableCheck
+{
+    private static final int DEFAULT_THREADS = 8;      //Threads hitting the table at once
+    private static final int DEFAULT_OPS = 200000;     //Random operations per thread
+    private static final int OWN_KEYS = 4096;          //Keys only one thread uses
+    private static final int SHARED_KEYS = 2048;       //Keys every thread uses
+    private static final int MANY_SEGMENTS = 64;       //Segments when threads should rarely share one
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+        int ops = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_OPS;
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : 1L;
+        //One segment means every thread shares it, many means they mostly don't
+        checkTable(new DSAConcurrentHashTable<String>(1, 1), "one segment", threads, ops, seed);
+        checkTable(new DSAConcurrentHashTable<String>(1, MANY_SEGMENTS), "many segments", threads, ops, seed + 1);
+        System.out.println("All DSAConcurrentHashTable checks passed.");
+    }
+
+    /* Function: checkTable
+     * Import: DSAConcurrentHashTable<String> table, String name, int threads, int ops, long seed.
+     * Export: None.
+     * Runs the threads on table, rethrowing the first thing any of them
+     * threw, then compares every key against the references.
+     */
+    private static void checkTable(final DSAConcurrentHashTable<String> table, String name, int threads, final int ops,
+        long seed) throws InterruptedException
+    {
+        final ConcurrentHashMap<String, String> shared = new ConcurrentHashMap<String, String>();
+        final Object[] keyLocks = new Object[SHARED_KEYS];
+        for(int i = 0; i < SHARED_KEYS; i++)
+        {
+            keyLocks[i] = new Object();
+        }
+        List<HashMap<String, String>> owned = new ArrayList<HashMap<String, String>>();
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try
+        {
+            for(int t = 0; t < threads; t++)
+            {
+                final int thread = t;
+                final Random rand = new Random(seed * 31 + t);
+                final HashMap<String, String> own = new HashMap<String, String>();
+                owned.add(own);
+                results.add(pool.submit(() ->
+                {
+                    start.await();
+                    for(int op = 0; op < ops; op++)
+                    {
+                        if(rand.nextBoolean())
+                        {
+                            ownOp(table, own, "t" + thread + "k" + rand.nextInt(OWN_KEYS), rand);
+                        }
+                        else
+                        {
+                            int k = rand.nextInt(SHARED_KEYS);
+                            sharedOp(table, shared, keyLocks[k], "s" + k, rand);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for(Future<?> result : results)
+            {
+                try
+                {
+                    result.get();
+                }
+                catch(ExecutionException e)
+                {
+                    throw new IllegalStateException(name + ": a thread failed.", e.getCause());
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        int size = shared.size();
+        for(int t = 0; t < threads; t++)
+        {
+            compare(table, owned.get(t), name);
+            size += owned.get(t).size();
+            for(int i = 0; i < OWN_KEYS; i++)
+            {
+                String key = "t" + t + "k" + i;
+                expect(table.containsKey(key) == owned.get(t).containsKey(key), name, "final containsKey " + key);
+            }
+        }
+        compare(table, shared, name);
+        for(int i = 0; i < SHARED_KEYS; i++)
+        {
+            expect(table.containsKey("s" + i) == shared.containsKey("s" + i), name, "final containsKey s" + i);
+        }
+        expect(table.getSize() == size, name, "final size " + table.getSize() + " vs " + size);
+        System.out.println(String.format("%s ok (%d threads, %d segments, %d keys left)", name, threads,
+            table.getSegmentCount(), size));
+    }
+
+    //One random operation on a key only this thread uses, checked exactly
+    private static void ownOp(DSAConcurrentHashTable<String> table, HashMap<String, String> own, String key, Random rand)
+    {
+        int choice = rand.nextInt(10);
+        if(choice < 4)
+        {
+            String value = key + "=" + rand.nextInt();
+            table.put(key, value);
+            own.put(key, value);
+        }
+        else if(choice < 7)
+        {
+            expect(Objects.equals(get(table, key), own.get(key)), "own keys", "get " + key);
+            expect(table.containsKey(key) == own.containsKey(key), "own keys", "containsKey " + key);
+        }
+        else
+        {
+            expect(remove(table, key) == (own.remove(key) != null), "own keys", "remove " + key);
+        }
+    }
+
+    //One random operation on a shared key, under that key's lock unless it is a racing read
+    private static void sharedOp(DSAConcurrentHashTable<String> table, ConcurrentHashMap<String, String> shared,
+        Object keyLock, String key, Random rand)
+    {
+        int choice = rand.nextInt(10);
+        if(choice < 3)
+        {
+            String value = get(table, key);
+            expect(value == null || value.startsWith(key + "="), "shared keys", "racing get " + key);
+        }
+        else
+        {
+            synchronized(keyLock)
+            {
+                if(choice < 6)
+                {
+                    String value = key + "=" + rand.nextInt();
+                    table.put(key, value);
+                    shared.put(key, value);
+                }
+                else if(choice < 8)
+                {
+                    expect(Objects.equals(get(table, key), shared.get(key)), "shared keys", "get " + key);
+                }
+                else
+                {
+                    expect(remove(table, key) == (shared.remove(key) != null), "shared keys", "remove " + key);
+                }
+            }
+        }
+    }
+
+    //Every key in the reference is in the table with the same value
+    private static void compare(DSAConcurrentHashTable<String> table, Map<String, String> expected, String name)
+    {
+        for(Map.Entry<String, String> entry : expected.entrySet())
+        {
+            expect(entry.getValue().equals(get(table, entry.getKey())), name, "final get " + entry.getKey());
+        }
+    }
+
+    //The table's value for key, or null if get says it has none
+    private static String get(DSAConcurrentHashTable<String> table, String key)
+    {
+        String value;
+        try
+        {
+            value = table.get(key);
+        }
+        catch(NoSuchElementException e)
+        {
+            value = null;
+        }
+        return value;
+    }
+
+    //True if the table had key to remove
+    private static boolean remove(DSAConcurrentHashTable<String> table, String key)
+    {
+        boolean removed = true;
+        try
+        {
+            table.remove(key);
+        }
+        catch(NoSuchElementException e)
+        {
+            removed = false;
+        }
+        return removed;
+    }
+
+    private static void expect(boolean condition, String name, String what)
+    {
+        if(!condition)
+        {
+            throw new IllegalStateException(String.format("%s: %s differs from the reference.", name, what));
+        }
+    }
+}
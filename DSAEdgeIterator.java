@@ -0,0 +1,137 @@
+/* *
+ * Luke McDougall
+ *
+ * Lazy traversal over the tree edges of a graph. Each edge is packed into a
+ * long as (parent label << 32) | child label so iterating doesn't box
+ * anything; use parent() and child() to unpack it. The traversal only does
+ * as much work as has been asked for.
+ *
+ * Traversals hold a pooled DSATraversalContext until they run out. Call
+ * close() when stopping early to give it back straight away, or close the
+ * stream() when streaming.
+ *
+ * Subclasses implement advance(), which finds the next edge and passes it to
+ * setNext(), and release(), which frees whatever the traversal holds.
+ *
+ * Last updated 18/10/2026
+ * */
+import java.util.*;
+import java.util.stream.*;
+
+public abstract class DSAEdgeIterator implements PrimitiveIterator.OfLong, AutoCloseable
+{
+    //class fields
+    private int next_parent;
+    private int next_child;
+    private boolean ready;
+    private boolean finished;
+
+    protected DSAEdgeIterator()
+    {
+        ready = false;
+        finished = false;
+    }
+
+    /* Function: advance
+     * Import: None.
+     * Export: boolean found.
+     * Finds the next edge and calls setNext() with it. Returns false if there are no more.
+     */
+    protected abstract boolean advance();
+
+    //Frees anything the traversal holds. Called once, when it finishes or is closed.
+    protected abstract void release();
+
+    protected void setNext(int parent, int child)
+    {
+        next_parent = parent;
+        next_child = child;
+    }
+
+    public boolean hasNext()
+    {
+        if(!ready && !finished)
+        {
+            ready = advance();
+            if(!ready)
+            {
+                close();
+            }
+        }
+        return ready;
+    }
+
+    public long nextLong()
+    {
+        if(!hasNext())
+        {
+            throw new NoSuchElementException("Error: No more edges in traversal.");
+        }
+        ready = false;
+        return pack(next_parent, next_child);
+    }
+
+    /* Function: forEachEdge
+     * Import: DSAEdgeVisitor visitor.
+     * Export: None.
+     * Passes the remaining edges to visitor until it returns false or they run out.
+     */
+    public void forEachEdge(DSAEdgeVisitor visitor)
+    {
+        boolean more = true;
+        while(more && hasNext())
+        {
+            ready = false;
+            more = visitor.visit(next_parent, next_child);
+        }
+        close();
+    }
+
+    /* Function: spliterator
+     * Import: None.
+     * Export: Spliterator.OfLong split.
+     * Returns an ordered spliterator over the remaining packed edges.
+     */
+    public Spliterator.OfLong spliterator()
+    {
+        return Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /* Function: stream
+     * Import: None.
+     * Export: LongStream edges.
+     *
+     * Sequential stream of the remaining packed edges. Closing the stream
+     * closes the traversal, so use it in a try-with-resources block if it
+     * may be short circuited, or the context isn't given back until GC.
+     */
+    public LongStream stream()
+    {
+        return StreamSupport.longStream(spliterator(), false).onClose(this::close);
+    }
+
+    public void close()
+    {
+        if(!finished)
+        {
+            finished = true;
+            ready = false;
+            release();
+        }
+    }
+
+    public static long pack(int parent, int child)
+    {
+        return ((long)parent << 32) | (child & 0xFFFFFFFFL);
+    }
+
+    public static int parent(long edge)
+    {
+        return (int)(edge >>> 32);
+    }
+
+    public static int child(long edge)
+    {
+        return (int)edge;
+    }
+}
@@ -0,0 +1,13 @@
+/* *
+ * Luke McDougall
+ *
+ * Callback for streaming graph traversals. Each tree edge is passed as the
+ * labels of the parent and child vertices as soon as it is found, so nothing
+ * is boxed or stored. Return false to stop the traversal early.
+ *
+ * Last updated 17/10/2026
+ * */
+public interface DSAEdgeVisitor
+{
+    boolean visit(int parent, int child);
+}
@@ -0,0 +1,762 @@
+/* *
+ * Luke McDougall
+ *
+ * Immutable compressed sparse row (CSR) snapshot of a DSAGraph. Vertices are
+ * numbered 0..n-1 in the order they were added to the graph. The adjacent
+ * vertices of vertex i are targets[offsets[i]] to targets[offsets[i + 1] - 1]
+ * in the same order as the original adjacency list, so traversals visit
+ * vertices in exactly the same order as DSAGraph does.
+ *
+ * The arrays are held as IntBuffers so a graph can either live on the heap
+ * or be served straight out of a memory mapped file (see DSAGraphFile).
+ *
+ * A weighted graph also has weights[e], the weight of the edge to targets[e].
+ * Without it every edge weighs DSAGraph.DEFAULT_WEIGHT.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class DSAFrozenGraph
+{
+    //Graphs smaller than this aren't worth splitting across threads
+    private static final int PARALLEL_MIN_VERTICES = 1 << 14;
+    //Number of frontier entries or vertices handled by one fork join task
+    private static final int GRAIN = 2048;
+    //Direction switch thresholds for parallel BFS (Beamer et al.)
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final long UNCLAIMED = Long.MAX_VALUE;
+
+    //INNER CLASS
+    //Body of a parallel loop over [lo, hi)
+    private interface RangeBody
+    {
+        void run(int lo, int hi);
+    }
+
+    //Fork join task splitting a range in half until it is at most grain long
+    private static class RangeTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private RangeBody body;
+        private int lo;
+        private int hi;
+        private int grain;
+
+        public RangeTask(RangeBody body, int lo, int hi, int grain)
+        {
+            this.body = body;
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+        }
+
+        protected void compute()
+        {
+            if(hi - lo <= grain)
+            {
+                body.run(lo, hi);
+            }
+            else
+            {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new RangeTask(body, lo, mid, grain), new RangeTask(body, mid, hi, grain));
+            }
+        }
+    }
+    //END INNER CLASS
+
+    //INNER CLASS
+    /* Depth first traversal. Each stack frame keeps a cursor into the targets
+     * array so every edge is looked at once. The stack, cursors and visited
+     * set come from a pooled DSATraversalContext so nothing is allocated per
+     * visit.
+     */
+    private class DSAFrozenDepthFirstIterator extends DSAEdgeIterator
+    {
+        private DSATraversalContext ctx;
+        private int[] stack;
+        private int[] cursor;
+        private int top;
+
+        public DSAFrozenDepthFirstIterator()
+        {
+            ctx = DSATraversalContext.acquire(vertex_count);
+            stack = ctx.getIds();
+            cursor = ctx.getCursors();
+            top = 0;
+            stack[0] = 0;
+            cursor[0] = offsets.get(0);
+            ctx.visit(0);
+        }
+
+        protected boolean advance()
+        {
+            boolean found = false;
+            while(!found && top >= 0)
+            {
+                int v = stack[top];
+                int e = cursor[top];
+                int end = offsets.get(v + 1);
+                while(e < end && ctx.isVisited(targets.get(e)))
+                {
+                    e++;
+                }
+                if(e < end)
+                {
+                    int w = targets.get(e);
+                    cursor[top] = e + 1;
+                    setNext(labels.get(v), labels.get(w));
+                    ctx.visit(w);
+                    top++;
+                    stack[top] = w;
+                    cursor[top] = offsets.get(w);
+                    found = true;
+                }
+                else
+                {
+                    top--;
+                }
+            }
+            return found;
+        }
+
+        protected void release()
+        {
+            DSATraversalContext.release(ctx);
+        }
+    }
+    //END INNER CLASS
+
+    //INNER CLASS
+    /* Breadth first traversal. Every vertex is enqueued at most once so the
+     * context's id array is used as the queue.
+     */
+    private class DSAFrozenBreadthFirstIterator extends DSAEdgeIterator
+    {
+        private DSATraversalContext ctx;
+        private int[] queue;
+        private int head;
+        private int tail;
+        private int v;
+        private int e;
+        private int end;
+
+        public DSAFrozenBreadthFirstIterator()
+        {
+            ctx = DSATraversalContext.acquire(vertex_count);
+            queue = ctx.getIds();
+            queue[0] = 0;
+            head = 0;
+            tail = 1;
+            e = 0;
+            end = 0;
+            ctx.visit(0);
+        }
+
+        protected boolean advance()
+        {
+            boolean found = false;
+            while(!found && (e < end || head < tail))
+            {
+                if(e == end)
+                {
+                    v = queue[head++];
+                    e = offsets.get(v);
+                    end = offsets.get(v + 1);
+                }
+                else
+                {
+                    int w = targets.get(e);
+                    e++;
+                    if(!ctx.isVisited(w))
+                    {
+                        setNext(labels.get(v), labels.get(w));
+                        ctx.visit(w);
+                        queue[tail++] = w;
+                        found = true;
+                    }
+                }
+            }
+            return found;
+        }
+
+        protected void release()
+        {
+            DSATraversalContext.release(ctx);
+        }
+    }
+    //END INNER CLASS
+
+    //class fields
+    private IntBuffer labels;
+    private IntBuffer offsets;
+    private IntBuffer targets;
+    private DoubleBuffer weights;
+    private int vertex_count;
+    private int edge_count;
+    //Label to id index, built the first time a label is looked up
+    private int[] index_keys;
+    private int[] index_ids;
+    //Reverse (incoming) edges, built the first time a bottom up BFS step needs them
+    private int[] reverse_offsets;
+    private int[] reverse_sources;
+    private int[] reverse_edges;
+
+    //Constructor for graphs on the heap. Used by DSAGraph.freeze().
+    DSAFrozenGraph(int[] labels, int[] offsets, int[] targets)
+    {
+        this(labels, offsets, targets, null);
+    }
+
+    //Constructor for weighted graphs on the heap. weights can be null for an unweighted graph.
+    DSAFrozenGraph(int[] labels, int[] offsets, int[] targets, double[] weights)
+    {
+        this(IntBuffer.wrap(labels), IntBuffer.wrap(offsets), IntBuffer.wrap(targets),
+            (weights == null) ? null : DoubleBuffer.wrap(weights));
+    }
+
+    DSAFrozenGraph(IntBuffer labels, IntBuffer offsets, IntBuffer targets)
+    {
+        this(labels, offsets, targets, null);
+    }
+
+    /* Constructor for graphs in any IntBuffer, such as one mapped from a file
+     * by DSAGraphFile. The buffers are used as they are rather than copied so
+     * they must not be changed afterwards. weights can be null for an
+     * unweighted graph.
+     */
+    DSAFrozenGraph(IntBuffer labels, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights)
+    {
+        this.labels = labels;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        vertex_count = labels.limit();
+        edge_count = targets.limit();
+    }
+
+    public int getVertexCount()
+    {
+        return vertex_count;
+    }
+
+    public int getEdgeCount()
+    {
+        return edge_count;
+    }
+
+    //Raw CSR buffers for DSAGraphFile to write out
+    IntBuffer getLabels()
+    {
+        return labels.duplicate();
+    }
+
+    IntBuffer getOffsets()
+    {
+        return offsets.duplicate();
+    }
+
+    IntBuffer getTargets()
+    {
+        return targets.duplicate();
+    }
+
+    //Null if the graph is unweighted
+    DoubleBuffer getWeights()
+    {
+        return (weights == null) ? null : weights.duplicate();
+    }
+
+    public boolean isWeighted()
+    {
+        return weights != null;
+    }
+
+    /* Function: findId
+     * Import: int label.
+     * Export: int id.
+     * Returns the dense id of the vertex with the passed label, or -1 if
+     * there isn't one.
+     */
+    int findId(int label)
+    {
+        buildIndex();
+        int mask = index_keys.length - 1;
+        int index = mix(label) & mask;
+        int id = -1;
+        while(index_ids[index] != 0 && id == -1)
+        {
+            if(index_keys[index] == label)
+            {
+                id = index_ids[index] - 1;
+            }
+            index = (index + 1) & mask;
+        }
+        return id;
+    }
+
+    /* Function: buildIndex
+     * Import: None.
+     * Export: None.
+     *
+     * Builds the open addressing label index on the first call. Ids are
+     * stored as id + 1 so 0 can mark an empty slot, and the table is kept at
+     * or below half full.
+     */
+    private synchronized void buildIndex()
+    {
+        if(index_ids == null)
+        {
+            int size = 2;
+            while(size < vertex_count * 2)
+            {
+                size *= 2;
+            }
+            int mask = size - 1;
+            int[] keys = new int[size];
+            int[] ids = new int[size];
+            for(int v = 0; v < vertex_count; v++)
+            {
+                int index = mix(labels.get(v)) & mask;
+                while(ids[index] != 0)
+                {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = labels.get(v);
+                ids[index] = v + 1;
+            }
+            index_keys = keys;
+            index_ids = ids;
+        }
+    }
+
+    //Same spreading as DSAGraph, labels are often small consecutive numbers
+    private static int mix(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* Function: displayList
+     * Import: None.
+     * Export: String table.
+     * Returns a string representing the graph as an adjacency list.
+     */
+    public String displayList()
+    {
+        StringBuilder table = new StringBuilder("Vertex |Adjacent\n");
+        for(int i = 0; i < vertex_count; i++)
+        {
+            table.append(String.format("%-7c|", labels.get(i)));
+            for(int e = offsets.get(i); e < offsets.get(i + 1); e++)
+            {
+                table.append(String.format("%c ", labels.get(targets.get(e))));
+            }
+            table.append("\n");
+        }
+        return table.toString();
+    }
+
+    /* Function displayMatrix
+     * Import: None.
+     * Export: String adjacency_matrix_str.
+     * Returns a formatted string representing the graph as an adjacency matrix.
+     */
+    public String displayMatrix()
+    {
+        StringBuilder adjacency_matrix_str = new StringBuilder("Vertex Matrix\n    ");
+        StringBuilder row_border = new StringBuilder("   |");
+        for(int i = 0; i < vertex_count; i++)
+        {
+            row_border.append("---|");
+            adjacency_matrix_str.append(String.format("%3c|", labels.get(i)));
+        }
+        row_border.append("\n");
+        adjacency_matrix_str.append("\n").append(row_border);
+        boolean[] row = new boolean[vertex_count];
+        for(int i = 0; i < vertex_count; i++)
+        {
+            Arrays.fill(row, false);
+            for(int e = offsets.get(i); e < offsets.get(i + 1); e++)
+            {
+                row[targets.get(e)] = true;
+            }
+            adjacency_matrix_str.append(String.format("%3c|", labels.get(i)));
+            for(int j = 0; j < vertex_count; j++)
+            {
+                adjacency_matrix_str.append(String.format("%3d|", row[j] ? 1 : 0));
+            }
+            adjacency_matrix_str.append("\n").append(row_border);
+        }
+        return adjacency_matrix_str.toString();
+    }
+
+    /* Function: depthFirstSearch
+     * Import: None.
+     * Export: DSAQueue T.
+     *
+     * Performs depth first search on the graph and returns a queue of vertex
+     * labels.
+     */
+    public DSAQueue<Integer> depthFirstSearch()
+    {
+        final DSAQueue<Integer> T = new DSAQueue<Integer>();
+        depthFirstSearch((parent, child) ->
+        {
+            T.enqueue(parent);
+            T.enqueue(child);
+            return true;
+        });
+        return T;
+    }
+
+    /* Function: depthFirstSearch
+     * Import: DSAEdgeVisitor visitor.
+     * Export: None.
+     * Performs depth first search passing each edge to visitor as it is found.
+     */
+    public void depthFirstSearch(DSAEdgeVisitor visitor)
+    {
+        depthFirstIterator().forEachEdge(visitor);
+    }
+
+    /* Function: depthFirstIterator
+     * Import: None.
+     * Export: DSAEdgeIterator iter.
+     * Returns a lazy depth first traversal of the graph.
+     */
+    public DSAEdgeIterator depthFirstIterator()
+    {
+        checkNotEmpty();
+        return new DSAFrozenDepthFirstIterator();
+    }
+
+    /* Function: breadthFirstSearch
+     * Import: None.
+     * Export: DSAQueue T.
+     *
+     * Performs breadth first search on the graph and returns a queue of vertex
+     * labels.
+     */
+    public DSAQueue<Integer> breadthFirstSearch()
+    {
+        final DSAQueue<Integer> T = new DSAQueue<Integer>();
+        breadthFirstSearch((parent, child) ->
+        {
+            T.enqueue(parent);
+            T.enqueue(child);
+            return true;
+        });
+        return T;
+    }
+
+    /* Function: breadthFirstSearch
+     * Import: DSAEdgeVisitor visitor.
+     * Export: None.
+     * Performs breadth first search passing each edge to visitor as it is found.
+     */
+    public void breadthFirstSearch(DSAEdgeVisitor visitor)
+    {
+        breadthFirstIterator().forEachEdge(visitor);
+    }
+
+    /* Function: breadthFirstIterator
+     * Import: None.
+     * Export: DSAEdgeIterator iter.
+     * Returns a lazy breadth first traversal of the graph.
+     */
+    public DSAEdgeIterator breadthFirstIterator()
+    {
+        checkNotEmpty();
+        return new DSAFrozenBreadthFirstIterator();
+    }
+
+    //Traversals start at the first vertex so there has to be one.
+    private void checkNotEmpty()
+    {
+        if(vertex_count == 0)
+        {
+            throw new IllegalStateException("Error: Graph has no vertices.");
+        }
+    }
+
+    /* Function: parallelBreadthFirstSearch
+     * Import: None.
+     * Export: DSAQueue T.
+     * Runs parallelBreadthFirstSearch(ForkJoinPool) on the common pool.
+     */
+    public DSAQueue<Integer> parallelBreadthFirstSearch()
+    {
+        return parallelBreadthFirstSearch(ForkJoinPool.commonPool());
+    }
+
+    /* Function: parallelBreadthFirstSearch
+     * Import: ForkJoinPool pool.
+     * Export: DSAQueue T.
+     *
+     * Level synchronous breadth first search that expands each frontier on
+     * the passed pool. Returns exactly the same queue as breadthFirstSearch.
+     *
+     * Each newly found vertex is claimed with the smallest key
+     * (frontier position << 32 | edge index) of the edges reaching it, which
+     * is the edge the sequential search would have found it by. Sorting the
+     * claimed keys gives the next frontier in sequential order.
+     *
+     * Levels are expanded top down (scan the frontier's edges) or bottom up
+     * (scan unvisited vertices' incoming edges) depending on which has fewer
+     * edges to look at.
+     */
+    public DSAQueue<Integer> parallelBreadthFirstSearch(ForkJoinPool pool)
+    {
+        if(vertex_count < PARALLEL_MIN_VERTICES)
+        {
+            return breadthFirstSearch();
+        }
+        DSAQueue<Integer> T = new DSAQueue<Integer>();
+        final long[] visited = new long[(vertex_count + 63) >>> 6];
+        final AtomicLongArray claim = new AtomicLongArray(vertex_count);
+        final int[] frontier_pos = new int[vertex_count];
+        final int[] frontier = new int[vertex_count];
+        final long[] next = new long[vertex_count];
+        for(int i = 0; i < vertex_count; i++)
+        {
+            claim.set(i, UNCLAIMED);
+        }
+        Arrays.fill(frontier_pos, -1);
+
+        frontier[0] = 0;
+        frontier_pos[0] = 0;
+        visited[0] = 1L;
+        int frontier_size = 1;
+        long frontier_edges = offsets.get(1) - offsets.get(0);
+        long unvisited_edges = edge_count - frontier_edges;
+        boolean bottom_up = false;
+        while(frontier_size > 0)
+        {
+            if(!bottom_up && frontier_edges > unvisited_edges / ALPHA)
+            {
+                bottom_up = true;
+            }
+            else if(bottom_up && frontier_size < vertex_count / BETA)
+            {
+                bottom_up = false;
+            }
+
+            int next_size;
+            if(bottom_up)
+            {
+                next_size = bottomUpStep(pool, visited, claim, frontier_pos, next);
+            }
+            else
+            {
+                next_size = topDownStep(pool, visited, claim, frontier, frontier_size, next);
+            }
+
+            //Sequential part: emit edges in order and set up the next level
+            for(int i = 0; i < frontier_size; i++)
+            {
+                frontier_pos[frontier[i]] = -1;
+            }
+            frontier_edges = 0;
+            for(int j = 0; j < next_size; j++)
+            {
+                int w = targets.get((int)next[j]);
+                int v = frontier[(int)(next[j] >>> 32)];
+                T.enqueue(labels.get(v));
+                T.enqueue(labels.get(w));
+                visited[w >>> 6] |= 1L << w;
+                claim.set(w, UNCLAIMED);
+                next[j] = w;
+                frontier_edges += offsets.get(w + 1) - offsets.get(w);
+            }
+            for(int j = 0; j < next_size; j++)
+            {
+                frontier[j] = (int)next[j];
+                frontier_pos[frontier[j]] = j;
+            }
+            unvisited_edges -= frontier_edges;
+            frontier_size = next_size;
+        }
+        return T;
+    }
+
+    /* Function: topDownStep
+     * Import: ForkJoinPool pool, long[] visited, AtomicLongArray claim,
+     *         int[] frontier, int frontier_size, long[] next.
+     * Export: int next_size.
+     *
+     * Claims every unvisited vertex adjacent to the frontier and writes the
+     * winning claim keys into next in sorted order.
+     */
+    private int topDownStep(ForkJoinPool pool, final long[] visited, final AtomicLongArray claim,
+                            final int[] frontier, int frontier_size, final long[] next)
+    {
+        pool.invoke(new RangeTask((lo, hi) ->
+        {
+            for(int i = lo; i < hi; i++)
+            {
+                int v = frontier[i];
+                for(int e = offsets.get(v); e < offsets.get(v + 1); e++)
+                {
+                    int w = targets.get(e);
+                    if((visited[w >>> 6] & (1L << w)) == 0)
+                    {
+                        long key = ((long)i << 32) | e;
+                        long current = claim.get(w);
+                        while(key < current && !claim.compareAndSet(w, current, key))
+                        {
+                            current = claim.get(w);
+                        }
+                    }
+                }
+            }
+        }, 0, frontier_size, GRAIN));
+
+        //Count the claims each frontier vertex won, then copy them out in order
+        final int[] counts = new int[frontier_size + 1];
+        pool.invoke(new RangeTask((lo, hi) ->
+        {
+            for(int i = lo; i < hi; i++)
+            {
+                int v = frontier[i];
+                int won = 0;
+                for(int e = offsets.get(v); e < offsets.get(v + 1); e++)
+                {
+                    if(claim.get(targets.get(e)) == (((long)i << 32) | e))
+                    {
+                        won++;
+                    }
+                }
+                counts[i + 1] = won;
+            }
+        }, 0, frontier_size, GRAIN));
+        Arrays.parallelPrefix(counts, Integer::sum);
+        pool.invoke(new RangeTask((lo, hi) ->
+        {
+            for(int i = lo; i < hi; i++)
+            {
+                int v = frontier[i];
+                int out = counts[i];
+                for(int e = offsets.get(v); e < offsets.get(v + 1); e++)
+                {
+                    long key = ((long)i << 32) | e;
+                    if(claim.get(targets.get(e)) == key)
+                    {
+                        next[out++] = key;
+                    }
+                }
+            }
+        }, 0, frontier_size, GRAIN));
+        return counts[frontier_size];
+    }
+
+    /* Function: bottomUpStep
+     * Import: ForkJoinPool pool, long[] visited, AtomicLongArray claim,
+     *         int[] frontier_pos, long[] next.
+     * Export: int next_size.
+     *
+     * Has every unvisited vertex look through its incoming edges for the
+     * smallest claim key from the frontier, then gathers and sorts the claim
+     * keys into next.
+     */
+    private int bottomUpStep(ForkJoinPool pool, final long[] visited, final AtomicLongArray claim,
+                             final int[] frontier_pos, final long[] next)
+    {
+        buildReverse();
+        final int blocks = (vertex_count + GRAIN - 1) / GRAIN;
+        final int[] counts = new int[blocks + 1];
+        pool.invoke(new RangeTask((lo, hi) ->
+        {
+            for(int b = lo; b < hi; b++)
+            {
+                int found = 0;
+                int end = Math.min(vertex_count, (b + 1) * GRAIN);
+                for(int v = b * GRAIN; v < end; v++)
+                {
+                    if((visited[v >>> 6] & (1L << v)) == 0)
+                    {
+                        long best = UNCLAIMED;
+                        for(int k = reverse_offsets[v]; k < reverse_offsets[v + 1]; k++)
+                        {
+                            int pos = frontier_pos[reverse_sources[k]];
+                            if(pos >= 0)
+                            {
+                                best = Math.min(best, ((long)pos << 32) | reverse_edges[k]);
+                            }
+                        }
+                        if(best != UNCLAIMED)
+                        {
+                            claim.set(v, best);
+                            found++;
+                        }
+                    }
+                }
+                counts[b + 1] = found;
+            }
+        }, 0, blocks, 1));
+        Arrays.parallelPrefix(counts, Integer::sum);
+        pool.invoke(new RangeTask((lo, hi) ->
+        {
+            for(int b = lo; b < hi; b++)
+            {
+                int out = counts[b];
+                int end = Math.min(vertex_count, (b + 1) * GRAIN);
+                for(int v = b * GRAIN; v < end; v++)
+                {
+                    long key = claim.get(v);
+                    if(key != UNCLAIMED)
+                    {
+                        next[out++] = key;
+                    }
+                }
+            }
+        }, 0, blocks, 1));
+        Arrays.parallelSort(next, 0, counts[blocks]);
+        return counts[blocks];
+    }
+
+    /* Function: buildReverse
+     * Import: None.
+     * Export: None.
+     *
+     * Builds the incoming edge lists by counting sort on the first call. For
+     * each incoming edge both the source vertex and the index of the edge in
+     * targets are kept.
+     */
+    private synchronized void buildReverse()
+    {
+        if(reverse_offsets == null)
+        {
+            int[] rev_offsets = new int[vertex_count + 1];
+            int[] rev_sources = new int[edge_count];
+            int[] rev_edges = new int[edge_count];
+            for(int e = 0; e < edge_count; e++)
+            {
+                rev_offsets[targets.get(e) + 1]++;
+            }
+            for(int i = 0; i < vertex_count; i++)
+            {
+                rev_offsets[i + 1] += rev_offsets[i];
+            }
+            int[] fill = Arrays.copyOf(rev_offsets, vertex_count);
+            for(int v = 0; v < vertex_count; v++)
+            {
+                for(int e = offsets.get(v); e < offsets.get(v + 1); e++)
+                {
+                    int k = fill[targets.get(e)]++;
+                    rev_sources[k] = v;
+                    rev_edges[k] = e;
+                }
+            }
+            reverse_sources = rev_sources;
+            reverse_edges = rev_edges;
+            reverse_offsets = rev_offsets;
+        }
+    }
+}
@@ -4,42 +4,97 @@
  * General purpose graph class. Has a linked list of nodes that each have a 
  * linked list of connections
  *
+ * Edges can be given a non-negative weight, 1.0 if none is given. Weights are
+ * kept in a double array per vertex parallel to its adjacency list, which is
+ * only made once the vertex has an edge that isn't 1.0. Shortest paths are
+ * found on a frozen snapshot with DSAShortestPaths.
+ *
  * Last updated 19/04/2019
  * */
 import java.util.*;
 import java.io.*;
 public class DSAGraph
 {
+    //Weight of edges added without one
+    public static final double DEFAULT_WEIGHT = 1.0;
+
     //INNER CLASS
     private class DSAGraphVertex
     {
         //class fields
         public DSALinkedList<DSAGraphVertex> adjacency_list;
+        public DSAAdjacencySet adjacency_set;
         public int label;
-        public boolean visited;
+        public int id;
+        public int degree;
+        //Weight of each edge in adjacency list order, null while they are all DEFAULT_WEIGHT
+        public double[] weights;
         //constructor
-        public DSAGraphVertex(int label)
+        public DSAGraphVertex(int label, int id)
         {
             adjacency_list = new DSALinkedList<DSAGraphVertex>();
+            adjacency_set = new DSAAdjacencySet();
             this.label = label;
-            visited = false;
+            this.id = id;
+            degree = 0;
+            weights = null;
         }
         
         /* Function: addEdge
-         * Import: DSAGraphVertex vertex.
+         * Import: DSAGraphVertex vertex, double weight.
          * Export: None.
          * Adds passed vertex to the current vertex adjacency list
          */
-        public void addEdge(DSAGraphVertex vertex)
+        public void addEdge(DSAGraphVertex vertex, double weight)
         {
-            if(!present(vertex.label))
+            if(!tryAddEdge(vertex, weight))
+            {
+                throw new IllegalArgumentException("Error: Edge already present.");
+            }
+        }
+
+        /* Function: tryAddEdge
+         * Import: DSAGraphVertex vertex, double weight.
+         * Export: boolean added.
+         * Adds passed vertex to the adjacency list unless it is already there.
+         */
+        public boolean tryAddEdge(DSAGraphVertex vertex, double weight)
+        {
+            boolean added = adjacency_set.add(vertex.id);
+            if(added)
             {
                 adjacency_list.insertLast(vertex);
+                if(weights != null || weight != DEFAULT_WEIGHT)
+                {
+                    storeWeight(degree, weight);
+                }
+                degree++;
             }
-            else
+            return added;
+        }
+
+        //Sets the weight of the index'th edge, making or doubling the weights array first if needed
+        private void storeWeight(int index, double weight)
+        {
+            if(weights == null)
             {
-                throw new IllegalArgumentException("Error: Edge already present.");
+                weights = new double[Math.max(2, index * 2)];
+                Arrays.fill(weights, DEFAULT_WEIGHT);
+                weighted = true;
             }
+            else if(index == weights.length)
+            {
+                int oldLength = weights.length;
+                weights = Arrays.copyOf(weights, oldLength * 2);
+                Arrays.fill(weights, oldLength, weights.length, DEFAULT_WEIGHT);
+            }
+            weights[index] = weight;
+        }
+
+        //Weight of the index'th edge in the adjacency list
+        public double weight(int index)
+        {
+            return (weights == null) ? DEFAULT_WEIGHT : weights[index];
         }
     
         /* Function: toString
@@ -62,63 +117,368 @@ public class DSAGraph
          * Export: None.
          *
          * Fills in the passed row matrix with information about which vertices
-         * are adjacent to it. Loops through the vertex_list and adds false to
-         * the array if the vertex isn't adjacent otherwise adds true.
+         * are adjacent to it. Vertex ids are their position in vertex_list so
+         * only the adjacent entries need setting. Expects a row of all false.
          */
         public void adjacencyMatrixRow(boolean[] row)
         {
-            int index = 0;
-            for(DSAGraphVertex v : vertex_list)
+            for(DSAGraphVertex v : adjacency_list)
             {
-                row[index] = present(v.label);
-                index++;
+                row[v.id] = true;
             }
         }
 
         /* Function: present
-         * Import: int label.
+         * Import: int id.
          * Export: boolean present
          *
-         * Returns true if the passed vertex label is in this vertex adjacency
-         * list. Otherwise returns false.
+         * Returns true if the vertex with the passed id is in this vertex
+         * adjacency list. Otherwise returns false.
          */
-        private boolean present(int label)
+        public boolean present(int id)
+        {
+            return adjacency_set.contains(id);
+        }
+    }
+    //END INNER CLASS
+
+    //INNER CLASS
+    /* Set of the vertex ids adjacent to one vertex. Most vertices only have a
+     * handful of edges so ids are kept in a small array that is scanned. Past
+     * INLINE_MAX edges it is promoted to an open addressing table storing
+     * id + 1 so that 0 can mark an empty slot.
+     */
+    private class DSAAdjacencySet
+    {
+        private static final int INLINE_MAX = 8;
+
+        private int[] ids;
+        private int count;
+        private boolean hashed;
+        private int mask;
+
+        public DSAAdjacencySet()
+        {
+            ids = new int[2];
+            count = 0;
+            hashed = false;
+        }
+
+        /* Function: contains
+         * Import: int id.
+         * Export: boolean present.
+         * Returns true if id is in the set.
+         */
+        public boolean contains(int id)
         {
             boolean present = false;
-            Iterator<DSAGraphVertex> iter = adjacency_list.iterator();
-            DSAGraphVertex v = null; 
-            while(iter.hasNext() && !present)
+            if(hashed)
+            {
+                int index = mix(id) & mask;
+                while(ids[index] != 0 && !present)
+                {
+                    present = ids[index] == id + 1;
+                    index = (index + 1) & mask;
+                }
+            }
+            else
             {
-                v = iter.next();
-                if(v.label == label)
+                for(int i = 0; i < count && !present; i++)
                 {
-                    present = true;
+                    present = ids[i] == id;
                 }
             }
             return present;
         }
+
+        /* Function: add
+         * Import: int id.
+         * Export: boolean added.
+         * Adds id to the set. Returns false if it was already there.
+         */
+        public boolean add(int id)
+        {
+            boolean added = false;
+            if(!contains(id))
+            {
+                if(!hashed && count == INLINE_MAX)
+                {
+                    rehash(INLINE_MAX * 4);
+                }
+                else if(!hashed && count == ids.length)
+                {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+                else if(hashed && (count + 1) * 2 > ids.length)
+                {
+                    rehash(ids.length * 2);
+                }
+
+                if(hashed)
+                {
+                    insertHashed(id);
+                }
+                else
+                {
+                    ids[count] = id;
+                }
+                count++;
+                added = true;
+            }
+            return added;
+        }
+
+        private void insertHashed(int id)
+        {
+            int index = mix(id) & mask;
+            while(ids[index] != 0)
+            {
+                index = (index + 1) & mask;
+            }
+            ids[index] = id + 1;
+        }
+
+        //Moves every id into a new hashed table of the passed (power of 2) size
+        private void rehash(int size)
+        {
+            int[] oldIds = ids;
+            boolean wasHashed = hashed;
+            ids = new int[size];
+            mask = size - 1;
+            hashed = true;
+            if(wasHashed)
+            {
+                for(int stored : oldIds)
+                {
+                    if(stored != 0)
+                    {
+                        insertHashed(stored - 1);
+                    }
+                }
+            }
+            else
+            {
+                for(int i = 0; i < count; i++)
+                {
+                    insertHashed(oldIds[i]);
+                }
+            }
+        }
+    }
+    //END INNER CLASS
+
+    //INNER CLASS
+    /* Open addressing map from vertex label to vertex. Keys are kept in a
+     * plain int array so lookups don't box the label. Vertices are never
+     * removed from a graph so there are no deleted entries to deal with.
+     */
+    private class DSAVertexIndex
+    {
+        private int[] keys;
+        private DSAGraphVertex[] vertices;
+        private int count;
+        private int mask;
+
+        public DSAVertexIndex()
+        {
+            keys = new int[16];
+            vertices = new DSAGraphVertex[16];
+            count = 0;
+            mask = 15;
+        }
+
+        /* Function: get
+         * Import: int label.
+         * Export: DSAGraphVertex v.
+         * Returns the vertex with the passed label or null if there isn't one.
+         */
+        public DSAGraphVertex get(int label)
+        {
+            int index = mix(label) & mask;
+            DSAGraphVertex v = vertices[index];
+            while(v != null && keys[index] != label)
+            {
+                index = (index + 1) & mask;
+                v = vertices[index];
+            }
+            return v;
+        }
+
+        /* Function: put
+         * Import: DSAGraphVertex vertex.
+         * Export: None.
+         * Adds the vertex under its label. Caller checks the label isn't present.
+         */
+        public void put(DSAGraphVertex vertex)
+        {
+            if((count + 1) * 2 > keys.length)
+            {
+                grow();
+            }
+            insert(vertex);
+            count++;
+        }
+
+        private void insert(DSAGraphVertex vertex)
+        {
+            int index = mix(vertex.label) & mask;
+            while(vertices[index] != null)
+            {
+                index = (index + 1) & mask;
+            }
+            keys[index] = vertex.label;
+            vertices[index] = vertex;
+        }
+
+        //Doubles the table and reinserts everything. Keeps load at or below 0.5
+        private void grow()
+        {
+            DSAGraphVertex[] oldVertices = vertices;
+            keys = new int[oldVertices.length * 2];
+            vertices = new DSAGraphVertex[oldVertices.length * 2];
+            mask = vertices.length - 1;
+            for(DSAGraphVertex v : oldVertices)
+            {
+                if(v != null)
+                {
+                    insert(v);
+                }
+            }
+        }
     }
     //END INNER CLASS
     
+    //INNER CLASS
+    /* Depth first traversal. Each vertex on the stack has an iterator over its
+     * adjacency list that carries on from where it left off, so every edge is
+     * looked at once. Visited vertices are tracked in a DSATraversalContext
+     * rather than on the vertices so concurrent searches don't interfere.
+     */
+    private class DSADepthFirstIterator extends DSAEdgeIterator
+    {
+        private DSAStack<DSAGraphVertex> S;
+        private DSAStack<Iterator<DSAGraphVertex>> cursors;
+        private DSATraversalContext ctx;
+
+        public DSADepthFirstIterator()
+        {
+            DSAGraphVertex v = vertex_list.peekFirst();
+            S = new DSAStack<DSAGraphVertex>();
+            cursors = new DSAStack<Iterator<DSAGraphVertex>>();
+            ctx = DSATraversalContext.acquire(vertex_count);
+            ctx.visit(v.id);
+            S.push(v);
+            cursors.push(v.adjacency_list.iterator());
+        }
+
+        protected boolean advance()
+        {
+            boolean found = false;
+            while(!found && !S.isEmpty())
+            {
+                DSAGraphVertex w = nextNew(cursors.top(), ctx);
+                if(w != null)
+                {
+                    setNext(S.top().label, w.label);
+                    ctx.visit(w.id);
+                    S.push(w);
+                    cursors.push(w.adjacency_list.iterator());
+                    found = true;
+                }
+                else
+                {
+                    S.pop();
+                    cursors.pop();
+                }
+            }
+            return found;
+        }
+
+        protected void release()
+        {
+            DSATraversalContext.release(ctx);
+        }
+    }
+    //END INNER CLASS
+
+    //INNER CLASS
+    //Breadth first traversal, visited vertices are tracked in a DSATraversalContext.
+    private class DSABreadthFirstIterator extends DSAEdgeIterator
+    {
+        private DSAQueue<DSAGraphVertex> Q;
+        private DSAGraphVertex v;
+        private Iterator<DSAGraphVertex> iter;
+        private DSATraversalContext ctx;
+
+        public DSABreadthFirstIterator()
+        {
+            DSAGraphVertex first = vertex_list.peekFirst();
+            Q = new DSAQueue<DSAGraphVertex>();
+            ctx = DSATraversalContext.acquire(vertex_count);
+            ctx.visit(first.id);
+            Q.enqueue(first);
+            v = null;
+            iter = null;
+        }
+
+        protected boolean advance()
+        {
+            boolean found = false;
+            while(!found && ((iter != null && iter.hasNext()) || !Q.isEmpty()))
+            {
+                if(iter == null || !iter.hasNext())
+                {
+                    v = Q.dequeue();
+                    iter = v.adjacency_list.iterator();
+                }
+                else
+                {
+                    DSAGraphVertex w = iter.next();
+                    if(!ctx.isVisited(w.id))
+                    {
+                        setNext(v.label, w.label);
+                        ctx.visit(w.id);
+                        Q.enqueue(w);
+                        found = true;
+                    }
+                }
+            }
+            return found;
+        }
+
+        protected void release()
+        {
+            DSATraversalContext.release(ctx);
+        }
+    }
+    //END INNER CLASS
+
     //class fields
     private DSALinkedList<DSAGraphVertex> vertex_list;
+    private DSAVertexIndex vertex_index;
     private int vertex_count;
     private int edge_count;
+    //True once any edge has a weight other than DEFAULT_WEIGHT
+    private boolean weighted;
 
     //Default constructor
     public DSAGraph()
     {
         vertex_list = new DSALinkedList<DSAGraphVertex>();
+        vertex_index = new DSAVertexIndex();
         vertex_count = 0;
         edge_count = 0;
+        weighted = false;
     }
 
     //Alternate contructor. Constructs graph from a text file.
     public DSAGraph(String filename)
     {
         vertex_list = new DSALinkedList<DSAGraphVertex>();
+        vertex_index = new DSAVertexIndex();
         vertex_count = 0;
         edge_count = 0;
+        weighted = false;
         FileReader rdr = null;
         BufferedReader bufrdr = null;
         try
@@ -170,28 +530,52 @@ public class DSAGraph
         }
         else
         {
-            DSAGraphVertex newVertex = new DSAGraphVertex(label);
-            vertex_list.insertLast(newVertex);
-            vertex_count++;
+            insertVertex(label);
         }
     }
 
+    //Creates and indexes a vertex. Caller checks the label isn't present.
+    private DSAGraphVertex insertVertex(int label)
+    {
+        DSAGraphVertex newVertex = new DSAGraphVertex(label, vertex_count);
+        vertex_list.insertLast(newVertex);
+        vertex_index.put(newVertex);
+        vertex_count++;
+        return newVertex;
+    }
+
     /* Function addEdge 
      * Import: int vertex_label_1, int vertex_label_2.
      * Export: None.
      *
      * Adds the vertex with label vertex_label_2 to the adjacency list of
      * the vertex with label vertex_label_1 if both vertices exist. Throws
-     * exception otherwise.
+     * exception otherwise. The edge has weight DEFAULT_WEIGHT.
      */
     public void addEdge(int vertex_label_1, int vertex_label_2)
     {
-        if(vertexPresent(vertex_label_1) && vertexPresent(vertex_label_2))
+        addEdge(vertex_label_1, vertex_label_2, DEFAULT_WEIGHT);
+    }
+
+    /* Function addEdge 
+     * Import: int vertex_label_1, int vertex_label_2, double weight.
+     * Export: None.
+     *
+     * Adds an edge as above with the passed weight, which must be
+     * non-negative and finite.
+     */
+    public void addEdge(int vertex_label_1, int vertex_label_2, double weight)
+    {
+        if(!(weight >= 0.0) || Double.isInfinite(weight))
+        {
+            throw new IllegalArgumentException(String.format("Error: Edge weight %f must be non-negative and finite.", weight));
+        }
+        DSAGraphVertex v1, v2;
+        v1 = findVertex(vertex_label_1);
+        v2 = findVertex(vertex_label_2);
+        if(v1 != null && v2 != null)
         {
-            DSAGraphVertex v1, v2;
-            v1 = findVertex(vertex_label_1);
-            v2 = findVertex(vertex_label_2);
-            v1.addEdge(v2);
+            v1.addEdge(v2, weight);
             edge_count++;
         }
         else
@@ -200,6 +584,42 @@ public class DSAGraph
         }
     }
 
+    /* Function: addEdges
+     * Import: int[] edges, int count.
+     * Export: int duplicates.
+     *
+     * Bulk insert used by DSAGraphLoader. Adds count edges stored as
+     * (from, to) label pairs in edges, adding each vertex the first time its
+     * label is seen. Edges that are already present are skipped rather than
+     * thrown for, and the number skipped is returned.
+     */
+    int addEdges(int[] edges, int count)
+    {
+        int duplicates = 0;
+        for(int i = 0; i < count * 2; i += 2)
+        {
+            DSAGraphVertex v1 = findVertex(edges[i]);
+            if(v1 == null)
+            {
+                v1 = insertVertex(edges[i]);
+            }
+            DSAGraphVertex v2 = findVertex(edges[i + 1]);
+            if(v2 == null)
+            {
+                v2 = insertVertex(edges[i + 1]);
+            }
+            if(v1.tryAddEdge(v2, DEFAULT_WEIGHT))
+            {
+                edge_count++;
+            }
+            else
+            {
+                duplicates++;
+            }
+        }
+        return duplicates;
+    }
+
     /* Function: vertexPresent
      * Import: int label.
      * Export: boolean present.
@@ -207,41 +627,73 @@ public class DSAGraph
      */
     private boolean vertexPresent(int label)
     {
-        boolean present = false;
-        Iterator<DSAGraphVertex> iter  = vertex_list.iterator();
-        DSAGraphVertex v = null;
-        while(iter.hasNext() && !present)
-        {
-            v = iter.next();
-            if(v.label == label)
-            {
-                present = true;
-            }
-        }         
-        return present;
+        return vertex_index.get(label) != null;
     }
 
     /* Function: findVertex
      * Import: int label.
      * Export: DSAGraphVertex v.
      *
-     * Returns the vertex with passed label. This should never be called if it's
-     * unknown whether or not such a vertex exists.
+     * Returns the vertex with passed label or null if no such vertex exists.
      */
     private DSAGraphVertex findVertex(int label)
     {
-        Iterator<DSAGraphVertex> iter = vertex_list.iterator();
-        DSAGraphVertex v = null;
-        boolean found = false;
-        while(iter.hasNext() && !found)
+        return vertex_index.get(label);
+    }
+
+    /* Function: hasEdge
+     * Import: int vertex_label_1, int vertex_label_2.
+     * Export: boolean present.
+     *
+     * Returns true if there is an edge from the vertex labelled vertex_label_1
+     * to the vertex labelled vertex_label_2.
+     */
+    public boolean hasEdge(int vertex_label_1, int vertex_label_2)
+    {
+        DSAGraphVertex v1, v2;
+        v1 = findVertex(vertex_label_1);
+        v2 = findVertex(vertex_label_2);
+        return v1 != null && v2 != null && v1.present(v2.id);
+    }
+
+    /* Function: getEdgeWeight
+     * Import: int vertex_label_1, int vertex_label_2.
+     * Export: double weight.
+     *
+     * Returns the weight of the edge from vertex_label_1 to vertex_label_2.
+     * Walks the first vertex's adjacency list. Throws exception if there is
+     * no such edge.
+     */
+    public double getEdgeWeight(int vertex_label_1, int vertex_label_2)
+    {
+        if(!hasEdge(vertex_label_1, vertex_label_2))
         {
-            v = iter.next();
-            if(v.label == label)
+            throw new IllegalArgumentException("Error: No edge between the passed vertex labels.");
+        }
+        DSAGraphVertex v1 = findVertex(vertex_label_1);
+        double weight = DEFAULT_WEIGHT;
+        int index = 0;
+        for(DSAGraphVertex w : v1.adjacency_list)
+        {
+            if(w.label == vertex_label_2)
             {
-                found = true;
+                weight = v1.weight(index);
             }
+            index++;
         }
-        return v;
+        return weight;
+    }
+
+    /* Function: mix
+     * Import: int key.
+     * Export: int h.
+     * Labels and ids are often small consecutive numbers so spread the bits
+     * out before masking them into a table index.
+     */
+    private static int mix(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
     }
 
     /* Function: parseLine
@@ -290,6 +742,44 @@ public class DSAGraph
         return table;
     }
 
+    /* Function: freeze
+     * Import: None.
+     * Export: DSAFrozenGraph frozen.
+     *
+     * Builds an immutable compressed sparse row snapshot of the graph. Each
+     * vertex gets a dense id in insertion order and its adjacency list becomes
+     * a run of the targets array. Later changes to this graph aren't reflected
+     * in the snapshot. Weights are only copied if some edge isn't DEFAULT_WEIGHT.
+     */
+    public DSAFrozenGraph freeze()
+    {
+        int[] labels = new int[vertex_count];
+        int[] offsets = new int[vertex_count + 1];
+        int[] targets = new int[edge_count];
+        double[] weights = weighted ? new double[edge_count] : null;
+        int index = 0;
+        int edge = 0;
+        for(DSAGraphVertex v : vertex_list)
+        {
+            labels[index] = v.label;
+            offsets[index] = edge;
+            int i = 0;
+            for(DSAGraphVertex w : v.adjacency_list)
+            {
+                targets[edge] = w.id;
+                if(weighted)
+                {
+                    weights[edge] = v.weight(i);
+                }
+                edge++;
+                i++;
+            }
+            index++;
+        }
+        offsets[vertex_count] = edge;
+        return new DSAFrozenGraph(labels, offsets, targets, weights);
+    }
+
     /* Function: depthFirstSearch
      * Import: None.
      * Export: DSAQueue T.
@@ -299,30 +789,35 @@ public class DSAGraph
      */
     public DSAQueue<Integer> depthFirstSearch()
     {
-        DSAQueue<Integer> T = new DSAQueue<Integer>();
-        DSAStack<DSAGraphVertex> S = new DSAStack<DSAGraphVertex>();
-        for(DSAGraphVertex v : vertex_list)
-        {
-            v.visited = false;
-        }
-        DSAGraphVertex v = vertex_list.peekFirst();
-        v.visited = true;
-        S.push(v);
-        while(!S.isEmpty())
+        final DSAQueue<Integer> T = new DSAQueue<Integer>();
+        depthFirstSearch((parent, child) ->
         {
-            
-            while(hasNew(S.top().adjacency_list))
-            {
-                v = getNew(S.top().adjacency_list);
-                T.enqueue(S.top().label);
-                T.enqueue(v.label);
-                v.visited = true;
-                S.push(v);
-            }
-            S.pop();
-        }
+            T.enqueue(parent);
+            T.enqueue(child);
+            return true;
+        });
         return T;
     }
+
+    /* Function: depthFirstSearch
+     * Import: DSAEdgeVisitor visitor.
+     * Export: None.
+     * Performs depth first search passing each edge to visitor as it is found.
+     */
+    public void depthFirstSearch(DSAEdgeVisitor visitor)
+    {
+        depthFirstIterator().forEachEdge(visitor);
+    }
+
+    /* Function: depthFirstIterator
+     * Import: None.
+     * Export: DSAEdgeIterator iter.
+     * Returns a lazy depth first traversal of the graph.
+     */
+    public DSAEdgeIterator depthFirstIterator()
+    {
+        return new DSADepthFirstIterator();
+    }
     
     /* Function: breadthFirstSearch
      * Import: None.
@@ -333,66 +828,52 @@ public class DSAGraph
      */
     public DSAQueue<Integer> breadthFirstSearch()
     {
-        DSAQueue<Integer> T = new DSAQueue<Integer>();
-        DSAQueue<DSAGraphVertex> Q = new DSAQueue<DSAGraphVertex>();
-        for(DSAGraphVertex v : vertex_list)
-        {
-            v.visited = false;
-        }
-        DSAGraphVertex v = vertex_list.peekFirst();
-        v.visited = true;
-        Q.enqueue(v);
-        while(!Q.isEmpty())
+        final DSAQueue<Integer> T = new DSAQueue<Integer>();
+        breadthFirstSearch((parent, child) ->
         {
-            v = Q.dequeue();
-            for(DSAGraphVertex w : v.adjacency_list)
-            {
-                if(!w.visited)
-                {
-                    T.enqueue(v.label);
-                    T.enqueue(w.label);
-                    w.visited = true;
-                    Q.enqueue(w);
-                }
-            }
-        }
+            T.enqueue(parent);
+            T.enqueue(child);
+            return true;
+        });
         return T;
     }
 
-    /* Function: hasNew
-     * Import: DSALinkedList<DSAGraphVertex> list.
-     * Export: boolean newVertex.
-     * Returns true if there is a vertex in the list that hasn't been visited.
+    /* Function: breadthFirstSearch
+     * Import: DSAEdgeVisitor visitor.
+     * Export: None.
+     * Performs breadth first search passing each edge to visitor as it is found.
+     */
+    public void breadthFirstSearch(DSAEdgeVisitor visitor)
+    {
+        breadthFirstIterator().forEachEdge(visitor);
+    }
+
+    /* Function: breadthFirstIterator
+     * Import: None.
+     * Export: DSAEdgeIterator iter.
+     * Returns a lazy breadth first traversal of the graph.
      */
-    private boolean hasNew(DSALinkedList<DSAGraphVertex> list)
+    public DSAEdgeIterator breadthFirstIterator()
     {
-        boolean newVertex = true;
-        for(DSAGraphVertex v : list)
-        {
-            newVertex = newVertex && v.visited; 
-        }
-        return !newVertex;
+        return new DSABreadthFirstIterator();
     }
 
-    /* Function: getNew
-     * Import: DSALinkedList<DSAGraphVertex> list.
+    /* Function: nextNew
+     * Import: Iterator<DSAGraphVertex> iter, DSATraversalContext ctx.
      * Export: DSAGraphVertex v.
      *
-     * Loops through the passed list and returns the first vertex that hasn't
-     * been visited. Should only call this method if you know there is a new 
-     * vertex by calling hasNew() first.
+     * Advances the passed iterator to the next vertex that hasn't been visited
+     * and returns it. Returns null if the iterator runs out first.
      */
-    private DSAGraphVertex getNew(DSALinkedList<DSAGraphVertex> list)
+    private DSAGraphVertex nextNew(Iterator<DSAGraphVertex> iter, DSATraversalContext ctx)
     {
         DSAGraphVertex v = null;
-        boolean found = false;
-        Iterator<DSAGraphVertex> iter = list.iterator();
-        while(iter.hasNext() && !found)
+        while(iter.hasNext() && v == null)
         {
-            v = iter.next();
-            if(!v.visited)
+            DSAGraphVertex w = iter.next();
+            if(!ctx.isVisited(w.id))
             {
-                found = true;
+                v = w;
             }
         }
         return v;
@@ -0,0 +1,602 @@
+/* *
+ * Luke McDougall
+ *
+ * Equivalence check for the graph traversals. For a few graph shapes it
+ * builds a DSAGraph, freezes it, and checks that every traversal gives
+ * exactly the same queue of (parent, child) labels:
+ *     DSAGraph depth first     vs DSAFrozenGraph depth first
+ *     DSAGraph breadth first   vs DSAFrozenGraph breadth first
+ *     DSAFrozenGraph breadth first vs parallelBreadthFirstSearch
+ * It stops with an exception at the first difference.
+ *
+ * DSAShortestPaths is checked against a plain Bellman-Ford on the same
+ * snapshot: every distance from a few sources, and point to point searches
+ * with no heuristic, an admissible one and an inconsistent one, each
+ * path walked edge by edge to make sure it adds up to its distance. The
+ * weighted graph lies in the plane with every edge at least as long as the
+ * straight line, so straight line distance is admissible, and scaling it
+ * by a random factor per vertex keeps it admissible but not consistent, so
+ * A* has to reopen vertices. DSAIndexedHeap's decrease key and offer are
+ * checked on their own against a brute force minimum.
+ *
+ * DSAOffHeapGraph is fed the same random stream of addVertex and addEdge
+ * calls as a DSAGraph, duplicates and unknown labels included, and must
+ * accept and reject the same calls, traverse the same way and freeze to
+ * the same arrays.
+ *
+ * The graphs are well over the size parallelBreadthFirstSearch hands off
+ * to the sequential search, and the shapes push it down both of its paths:
+ * a hub graph has frontiers big enough to go bottom up, a line has
+ * thousands of one vertex levels. Labels are shuffled and some are
+ * negative so label/id mix ups show. Parallel runs use a pool of several
+ * threads whatever the machine has, so the claiming is raced even on one
+ * core.
+ *
+ * Usage: java DSAGraphCheck [vertices] [seed]
+ *
+ * Last updated 18/10/2026
+ * */
+import java.util.*;
+import java.util.concurrent.*;
+
+public class DSAGraphCheck
+{
+    private static final int DEFAULT_VERTICES = 40000;  //At least the parallel search's cutoff
+    private static final int THREADS = 4;               //Parallel BFS pool size
+    private static final int PARALLEL_RUNS = 3;         //Parallel searches per graph
+    private static final int HUBS = 8;                  //Hub vertices in the hub shape
+    private static final int COMPONENTS = 5;            //Pieces in the components shape
+    private static final int SOURCES = 3;               //Shortest path sources per graph
+    private static final int TARGETS = 60;              //Point to point searches per source
+    private static final int WEIGHTED_FRACTION = 16;    //Weighted graph is this much smaller
+    private static final int SIDE = 1000;               //Weighted graph coordinates are 0..SIDE-1
+    private static final int HEAP_CAPACITY = 200;       //Ids in the heap check
+    private static final int HEAP_OPS = 100000;         //Random heap operations
+    private static final double TOLERANCE = 1e-9;       //Relative error allowed between distances
+    private static final int OFF_HEAP_FRACTION = 8;     //Off heap graph is this much smaller
+
+    public static void main(String[] args)
+    {
+        int vertices = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_VERTICES;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 1L;
+        ForkJoinPool pool = new ForkJoinPool(THREADS);
+        try
+        {
+            String[] shapes = {"random", "hub", "line", "components"};
+            for(int s = 0; s < shapes.length; s++)
+            {
+                Random rand = new Random(seed + s);
+                checkGraph(shapes[s], build(shapes[s], vertices, rand), pool, rand);
+            }
+            Random rand = new Random(seed + shapes.length);
+            int n = Math.max(2, vertices / WEIGHTED_FRACTION);
+            int[] x = new int[n];
+            int[] y = new int[n];
+            DSAFrozenGraph weighted = buildWeighted(n, x, y, rand).freeze();
+            checkShortestPaths("weighted", weighted, x, y, rand);
+            checkHeap(rand);
+            checkOffHeap(Math.max(2, vertices / OFF_HEAP_FRACTION), rand);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        System.out.println("All graph checks passed.");
+    }
+
+    /* Function: build
+     * Import: String shape, int n, Random rand.
+     * Export: DSAGraph graph.
+     * Makes a directed graph of n vertices with the passed shape.
+     */
+    private static DSAGraph build(String shape, int n, Random rand)
+    {
+        int[] edges = new int[2 * 8 * n];
+        int count = 0;
+        if(shape.equals("random"))
+        {
+            //Out degree 0 to 6 to anywhere
+            for(int v = 0; v < n; v++)
+            {
+                for(int d = rand.nextInt(7); d > 0; d--)
+                {
+                    count = edge(edges, count, v, rand.nextInt(n));
+                }
+            }
+        }
+        else if(shape.equals("hub"))
+        {
+            //Vertex 0 reaches the hubs, every hub reaches everyone, everyone points back at a hub
+            for(int h = 1; h <= HUBS; h++)
+            {
+                count = edge(edges, count, 0, h);
+            }
+            for(int v = HUBS + 1; v < n; v++)
+            {
+                count = edge(edges, count, 1 + rand.nextInt(HUBS), v);
+                count = edge(edges, count, v, 1 + rand.nextInt(HUBS));
+                count = edge(edges, count, v, rand.nextInt(n));
+            }
+        }
+        else if(shape.equals("line"))
+        {
+            //A long path with the odd edge back towards the start
+            for(int v = 0; v + 1 < n; v++)
+            {
+                count = edge(edges, count, v, v + 1);
+                if(rand.nextInt(16) == 0)
+                {
+                    count = edge(edges, count, v, rand.nextInt(v + 1));
+                }
+            }
+        }
+        else
+        {
+            //Random edges that stay within one of several pieces, so most vertices are never reached
+            int piece = n / COMPONENTS;
+            for(int v = 0; v < n; v++)
+            {
+                int start = Math.min(v / piece, COMPONENTS - 1) * piece;
+                int size = (start + piece * 2 > n) ? n - start : piece;
+                for(int d = rand.nextInt(4); d > 0; d--)
+                {
+                    count = edge(edges, count, v, start + rand.nextInt(size));
+                }
+            }
+        }
+        int[] labels = shuffledLabels(n, rand);
+        DSAGraph graph = new DSAGraph();
+        for(int i = 0; i < n; i++)
+        {
+            graph.addVertex(labels[i]);
+        }
+        for(int i = 0; i < count * 2; i++)
+        {
+            edges[i] = labels[edges[i]];
+        }
+        graph.addEdges(edges, count);
+        return graph;
+    }
+
+    //Labels for ids 0..n-1, shuffled so a vertex's label says nothing about its id
+    private static int[] shuffledLabels(int n, Random rand)
+    {
+        int[] labels = new int[n];
+        for(int i = 0; i < n; i++)
+        {
+            labels[i] = i - n / 3;
+        }
+        for(int i = n - 1; i > 0; i--)
+        {
+            int j = rand.nextInt(i + 1);
+            int tmp = labels[i];
+            labels[i] = labels[j];
+            labels[j] = tmp;
+        }
+        return labels;
+    }
+
+    /* Function: buildWeighted
+     * Import: int n, int[] x, int[] y, Random rand.
+     * Export: DSAGraph graph.
+     *
+     * Makes a directed graph of n vertices at random points, filling x and y
+     * with each id's coordinates. Each edge's weight is its straight line
+     * length times 1, 1.5 or 2, so equal length paths are common, and no
+     * edge is shorter than the straight line.
+     */
+    private static DSAGraph buildWeighted(int n, int[] x, int[] y, Random rand)
+    {
+        int[] labels = shuffledLabels(n, rand);
+        DSAGraph graph = new DSAGraph();
+        for(int i = 0; i < n; i++)
+        {
+            graph.addVertex(labels[i]);
+            x[i] = rand.nextInt(SIDE);
+            y[i] = rand.nextInt(SIDE);
+        }
+        for(int v = 0; v < n; v++)
+        {
+            for(int d = rand.nextInt(7); d > 0; d--)
+            {
+                int w = rand.nextInt(n);
+                if(!graph.hasEdge(labels[v], labels[w]))
+                {
+                    double length = Math.hypot(x[v] - x[w], y[v] - y[w]);
+                    graph.addEdge(labels[v], labels[w], length * (1.0 + 0.5 * rand.nextInt(3)));
+                }
+            }
+        }
+        return graph;
+    }
+
+    //Stores the edge (from, to) as a pair of ids
+    private static int edge(int[] edges, int count, int from, int to)
+    {
+        edges[count * 2] = from;
+        edges[count * 2 + 1] = to;
+        return count + 1;
+    }
+
+    /* Function: checkGraph
+     * Import: String shape, DSAGraph graph, ForkJoinPool pool, Random rand.
+     * Export: None.
+     * Runs each traversal pair on graph and its snapshot and compares them,
+     * then checks unweighted shortest paths on the snapshot.
+     */
+    private static void checkGraph(String shape, DSAGraph graph, ForkJoinPool pool, Random rand)
+    {
+        DSAFrozenGraph frozen = graph.freeze();
+        compare(shape, "depth first", graph.depthFirstSearch(), frozen.depthFirstSearch());
+        DSAQueue<Integer> bfs = frozen.breadthFirstSearch();
+        compare(shape, "breadth first", graph.breadthFirstSearch(), bfs);
+        for(int run = 0; run < PARALLEL_RUNS; run++)
+        {
+            compare(shape, "parallel breadth first", bfs, frozen.parallelBreadthFirstSearch(pool));
+        }
+        compare(shape, "common pool breadth first", bfs, frozen.parallelBreadthFirstSearch());
+        checkShortestPaths(shape, frozen, null, null, rand);
+        System.out.println(String.format("%s ok (%d vertices, %d edges, %d tree edges)", shape,
+            frozen.getVertexCount(), frozen.getEdgeCount(), bfs.getSize() / 2));
+    }
+
+    //The two queues hold the same labels in the same order
+    private static void compare(String shape, String what, DSAQueue<Integer> expected, DSAQueue<Integer> actual)
+    {
+        if(expected.getSize() != actual.getSize())
+        {
+            throw new IllegalStateException(String.format("%s graph: %s has %d labels, expected %d.", shape, what,
+                actual.getSize(), expected.getSize()));
+        }
+        Iterator<Integer> iter = actual.iterator();
+        int i = 0;
+        for(Integer label : expected)
+        {
+            Integer other = iter.next();
+            if(!label.equals(other))
+            {
+                throw new IllegalStateException(String.format("%s graph: %s differs at label %d, %d vs %d.", shape,
+                    what, i, other, label));
+            }
+            i++;
+        }
+    }
+
+    /* Function: checkShortestPaths
+     * Import: String shape, DSAFrozenGraph frozen, int[] x, int[] y, Random rand.
+     * Export: None.
+     *
+     * Compares one reused DSAShortestPaths with Bellman-Ford from a few
+     * sources, the first vertex and random ones. With coordinates, each point
+     * to point search is also run as A* with the straight line heuristic and
+     * with a randomly scaled down one, which must make A* reopen a vertex at
+     * least once over the whole check.
+     */
+    private static void checkShortestPaths(String shape, final DSAFrozenGraph frozen, final int[] x, final int[] y, Random rand)
+    {
+        int n = frozen.getVertexCount();
+        DSAShortestPaths paths = new DSAShortestPaths(frozen);
+        DSAHeuristic[] heuristics = {null};
+        if(x != null)
+        {
+            DSAHeuristic straight = (label, target) ->
+            {
+                int v = frozen.findId(label);
+                int t = frozen.findId(target);
+                return Math.hypot(x[v] - x[t], y[v] - y[t]);
+            };
+            //A fixed factor in [0, 1) per vertex from its label's bits
+            DSAHeuristic inconsistent = (label, target) ->
+                straight.estimate(label, target) * (((label * 0x9E3779B9) >>> 16) / 65536.0);
+            heuristics = new DSAHeuristic[] {null, straight, inconsistent};
+        }
+        int reopened = 0;
+        for(int s = 0; s < SOURCES; s++)
+        {
+            int source = (s == 0) ? 0 : rand.nextInt(n);
+            int source_label = frozen.getLabels().get(source);
+            double[] expected = bellmanFord(frozen, source);
+            paths.fromSource(source_label);
+            for(int v = 0; v < n; v++)
+            {
+                int label = frozen.getLabels().get(v);
+                expectDistance(shape, "fromSource", expected[v], paths.distanceTo(label));
+                expect(paths.isReached(label) == (expected[v] != Double.POSITIVE_INFINITY), shape, "isReached " + label);
+            }
+            int[] targets = new int[TARGETS];
+            for(int t = 0; t < TARGETS; t++)
+            {
+                targets[t] = rand.nextInt(n);
+                checkPath(shape, "fromSource path", frozen, paths, source_label, frozen.getLabels().get(targets[t]), expected[targets[t]]);
+            }
+            for(int t = 0; t < TARGETS; t++)
+            {
+                int target = targets[t];
+                int target_label = frozen.getLabels().get(target);
+                for(int h = 0; h < heuristics.length; h++)
+                {
+                    String what = (h == 0) ? "Dijkstra" : (h == 1) ? "A*" : "inconsistent A*";
+                    expectDistance(shape, what, expected[target], paths.between(source_label, target_label, heuristics[h]));
+                    checkPath(shape, what + " path", frozen, paths, source_label, target_label, expected[target]);
+                    if(h == 2 && paths.getSettledCount() > reachedCount(frozen, paths))
+                    {
+                        reopened++;
+                    }
+                }
+            }
+        }
+        expect(x == null || reopened > 0, shape, "inconsistent heuristic never reopened a vertex, so reopening");
+        if(x != null)
+        {
+            System.out.println(String.format("%s shortest paths ok (%d A* searches reopened a vertex)", shape, reopened));
+        }
+    }
+
+    /* Function: bellmanFord
+     * Import: DSAFrozenGraph frozen, int source.
+     * Export: double[] distance.
+     * Distance from source to every id, infinity if unreachable, by relaxing
+     * every edge until nothing changes.
+     */
+    private static double[] bellmanFord(DSAFrozenGraph frozen, int source)
+    {
+        int n = frozen.getVertexCount();
+        double[] distance = new double[n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        distance[source] = 0.0;
+        boolean changed = true;
+        while(changed)
+        {
+            changed = false;
+            for(int v = 0; v < n; v++)
+            {
+                if(distance[v] != Double.POSITIVE_INFINITY)
+                {
+                    for(int e = frozen.getOffsets().get(v); e < frozen.getOffsets().get(v + 1); e++)
+                    {
+                        int w = frozen.getTargets().get(e);
+                        double d = distance[v] + weight(frozen, e);
+                        if(d < distance[w])
+                        {
+                            distance[w] = d;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+        return distance;
+    }
+
+    private static double weight(DSAFrozenGraph frozen, int edge)
+    {
+        return (frozen.getWeights() == null) ? DSAGraph.DEFAULT_WEIGHT : frozen.getWeights().get(edge);
+    }
+
+    //Walks the path pathTo gives and checks it joins source to target by real edges adding up to expected
+    private static void checkPath(String shape, String what, DSAFrozenGraph frozen, DSAShortestPaths paths,
+        int source_label, int target_label, double expected)
+    {
+        int[] path = new int[frozen.getVertexCount()];
+        int length = paths.pathTo(target_label, path);
+        if(expected == Double.POSITIVE_INFINITY)
+        {
+            expect(length == 0, shape, what + " to unreachable " + target_label);
+        }
+        else
+        {
+            expect(length > 0 && path[0] == source_label && path[length - 1] == target_label, shape, what + " ends");
+            double total = 0.0;
+            for(int i = 0; i + 1 < length; i++)
+            {
+                int v = frozen.findId(path[i]);
+                int w = frozen.findId(path[i + 1]);
+                int edge = -1;
+                for(int e = frozen.getOffsets().get(v); e < frozen.getOffsets().get(v + 1); e++)
+                {
+                    if(frozen.getTargets().get(e) == w)
+                    {
+                        edge = e;
+                    }
+                }
+                expect(edge >= 0, shape, what + " step " + path[i] + " to " + path[i + 1]);
+                total += weight(frozen, edge);
+            }
+            expectDistance(shape, what + " length", expected, total);
+        }
+    }
+
+    //Vertices the last search reached, each popped at least once unless the search stopped early
+    private static int reachedCount(DSAFrozenGraph frozen, DSAShortestPaths paths)
+    {
+        int reached = 0;
+        for(int v = 0; v < frozen.getVertexCount(); v++)
+        {
+            reached += paths.isReached(frozen.getLabels().get(v)) ? 1 : 0;
+        }
+        return reached;
+    }
+
+    private static void expectDistance(String shape, String what, double expected, double actual)
+    {
+        boolean same = (expected == actual)
+            || Math.abs(expected - actual) <= TOLERANCE * Math.max(1.0, Math.abs(expected));
+        expect(same, shape, String.format("%s distance %f, expected %f,", what, actual, expected));
+    }
+
+    /* Function: checkHeap
+     * Import: Random rand.
+     * Export: None.
+     *
+     * Random inserts, decreaseKeys, offers, pops and clears on a
+     * DSAIndexedHeap, checked against an array of keys whose minimum is
+     * found by brute force. Keys are small whole numbers so ties are common.
+     */
+    private static void checkHeap(Random rand)
+    {
+        DSAIndexedHeap heap = new DSAIndexedHeap(HEAP_CAPACITY);
+        double[] keys = new double[HEAP_CAPACITY];
+        boolean[] in = new boolean[HEAP_CAPACITY];
+        int size = 0;
+        for(int op = 0; op < HEAP_OPS; op++)
+        {
+            int choice = rand.nextInt(100);
+            int id = rand.nextInt(HEAP_CAPACITY);
+            double key = rand.nextInt(1000);
+            if(choice < 30 && !in[id])
+            {
+                heap.insert(id, key);
+                keys[id] = key;
+                in[id] = true;
+                size++;
+            }
+            else if(choice < 50 && in[id])
+            {
+                key = keys[id] - rand.nextInt(100);
+                heap.decreaseKey(id, key);
+                keys[id] = key;
+            }
+            else if(choice < 70)
+            {
+                boolean changed = !in[id] || key < keys[id];
+                expect(heap.offer(id, key) == changed, "heap", "offer " + id);
+                if(changed)
+                {
+                    size += in[id] ? 0 : 1;
+                    keys[id] = key;
+                    in[id] = true;
+                }
+            }
+            else if(choice < 99 && size > 0)
+            {
+                double min = Double.POSITIVE_INFINITY;
+                for(int i = 0; i < HEAP_CAPACITY; i++)
+                {
+                    min = (in[i] && keys[i] < min) ? keys[i] : min;
+                }
+                expect(heap.getKey(heap.peek()) == min, "heap", "peek key");
+                int top = heap.pop();
+                expect(in[top] && keys[top] == min, "heap", "pop " + top);
+                in[top] = false;
+                size--;
+            }
+            else if(choice == 99)
+            {
+                heap.clear();
+                Arrays.fill(in, false);
+                size = 0;
+            }
+            expect(heap.getSize() == size && heap.contains(id) == in[id], "heap", "size or contains " + id);
+        }
+        System.out.println("heap ok");
+    }
+
+    /* Function: checkOffHeap
+     * Import: int n, Random rand.
+     * Export: None.
+     *
+     * Feeds a DSAGraph and a DSAOffHeapGraph the same random addVertex and
+     * addEdge calls over n labels, about one in eight a duplicate or naming
+     * a label not added yet. Each call must throw from both or neither, and
+     * hasEdge must agree. Then both graphs' traversals and frozen snapshots
+     * must match.
+     */
+    private static void checkOffHeap(int n, Random rand)
+    {
+        DSAGraph graph = new DSAGraph();
+        DSAOffHeapGraph offHeap = new DSAOffHeapGraph();
+        int[] labels = shuffledLabels(n, rand);
+        int added = 0;
+        int rejected = 0;
+        for(int op = 0; op < 6 * n; op++)
+        {
+            boolean accepted;
+            if(added < n && (added == 0 || rand.nextInt(5) == 0))
+            {
+                //Mostly the next new label, sometimes one already added
+                int label = labels[(rand.nextInt(8) == 0) ? rand.nextInt(added + 1) : added];
+                accepted = addVertex(graph, offHeap, label);
+                added += accepted ? 1 : 0;
+            }
+            else
+            {
+                //Mostly between added labels, so some repeat, sometimes to one not added yet
+                int from = labels[rand.nextInt(added)];
+                int to = labels[(rand.nextInt(16) == 0) ? rand.nextInt(n) : rand.nextInt(added)];
+                accepted = addEdge(graph, offHeap, from, to);
+                expect(graph.hasEdge(from, to) == offHeap.hasEdge(from, to), "off heap", "hasEdge " + from + " " + to);
+            }
+            rejected += accepted ? 0 : 1;
+        }
+        compare("off heap", "depth first", graph.depthFirstSearch(), offHeap.depthFirstSearch());
+        compare("off heap", "breadth first", graph.breadthFirstSearch(), offHeap.breadthFirstSearch());
+        DSAFrozenGraph expected = graph.freeze();
+        DSAFrozenGraph actual = offHeap.freeze();
+        expect(expected.getVertexCount() == offHeap.getVertexCount() && expected.getEdgeCount() == offHeap.getEdgeCount(),
+            "off heap", "vertex or edge count");
+        expect(expected.getLabels().equals(actual.getLabels()), "off heap", "frozen labels");
+        expect(expected.getOffsets().equals(actual.getOffsets()), "off heap", "frozen offsets");
+        expect(expected.getTargets().equals(actual.getTargets()), "off heap", "frozen targets");
+        expect(expected.getWeights() == null && actual.getWeights() == null, "off heap", "frozen weights");
+        System.out.println(String.format("off heap ok (%d vertices, %d edges, %d calls rejected)", added,
+            expected.getEdgeCount(), rejected));
+    }
+
+    //Adds label to both graphs, returning true if both took it and false if both threw
+    private static boolean addVertex(DSAGraph graph, DSAOffHeapGraph offHeap, int label)
+    {
+        boolean accepted = true;
+        boolean offHeapAccepted = true;
+        try
+        {
+            graph.addVertex(label);
+        }
+        catch(IllegalArgumentException e)
+        {
+            accepted = false;
+        }
+        try
+        {
+            offHeap.addVertex(label);
+        }
+        catch(IllegalArgumentException e)
+        {
+            offHeapAccepted = false;
+        }
+        expect(accepted == offHeapAccepted, "off heap", "addVertex " + label);
+        return accepted;
+    }
+
+    //Adds the edge to both graphs, returning true if both took it and false if both threw
+    private static boolean addEdge(DSAGraph graph, DSAOffHeapGraph offHeap, int from, int to)
+    {
+        boolean accepted = true;
+        boolean offHeapAccepted = true;
+        try
+        {
+            graph.addEdge(from, to);
+        }
+        catch(IllegalArgumentException e)
+        {
+            accepted = false;
+        }
+        try
+        {
+            offHeap.addEdge(from, to);
+        }
+        catch(IllegalArgumentException e)
+        {
+            offHeapAccepted = false;
+        }
+        expect(accepted == offHeapAccepted, "off heap", "addEdge " + from + " " + to);
+        return accepted;
+    }
+
+    private static void expect(boolean condition, String shape, String what)
+    {
+        if(!condition)
+        {
+            throw new IllegalStateException(String.format("%s graph: %s differs from the reference.", shape, what));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/* *
+ * Luke McDougall
+ *
+ * Binary file format for frozen graphs. A graph written with write() can be
+ * opened with map(), which memory maps the file and serves traversals straight
+ * out of the mapped pages, so "loading" takes no longer than reading the header.
+ *
+ * Layout, all little endian:
+ *   header   32 bytes
+ *            int  magic ('D' 'S' 'A' 'G')
+ *            int  version
+ *            int  flags, FLAG_WEIGHTED or 0
+ *            int  vertex count V
+ *            long edge count E
+ *            long reserved (0)
+ *   labels   V ints, vertex labels by dense id
+ *   offsets  V + 1 ints, CSR offsets into targets
+ *   targets  E ints, dense ids of adjacent vertices
+ *   weights  only with FLAG_WEIGHTED, E doubles, weight of each edge in
+ *            targets. Preceded by 4 bytes of padding if needed to start
+ *            on a multiple of 8.
+ *
+ * Each section is mapped on its own so it must be under 2GB.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+public class DSAGraphFile
+{
+    private static final int MAGIC = 0x44534147;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    //Flag bits
+    private static final int FLAG_WEIGHTED = 1;
+    //Ints copied per write call
+    private static final int WRITE_BLOCK = 1 << 18;
+
+    /* Function: write
+     * Import: DSAFrozenGraph graph, String filename.
+     * Export: None.
+     * Writes the graph to filename, replacing anything already there.
+     */
+    public static void write(DSAFrozenGraph graph, String filename) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(graph.isWeighted() ? FLAG_WEIGHTED : 0);
+            header.putInt(graph.getVertexCount());
+            header.putLong(graph.getEdgeCount());
+            header.putLong(0L);
+            header.flip();
+            writeFully(channel, header);
+
+            ByteBuffer block = ByteBuffer.allocateDirect(WRITE_BLOCK * 4).order(ByteOrder.LITTLE_ENDIAN);
+            writeInts(channel, graph.getLabels(), block);
+            writeInts(channel, graph.getOffsets(), block);
+            writeInts(channel, graph.getTargets(), block);
+            if(graph.isWeighted())
+            {
+                long pos = HEADER_SIZE + 4L * (2L * graph.getVertexCount() + 1 + graph.getEdgeCount());
+                writeFully(channel, ByteBuffer.allocate((int)(align(pos) - pos)));
+                writeDoubles(channel, graph.getWeights(), block);
+            }
+        }
+    }
+
+    /* Function: map
+     * Import: String filename.
+     * Export: DSAFrozenGraph graph.
+     *
+     * Memory maps a file made by write() and returns a graph backed by the
+     * mapping. Nothing but the header is read up front. Throws IOException if
+     * the file isn't a graph file or its sizes don't add up.
+     */
+    public static DSAFrozenGraph map(String filename) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if(size < HEADER_SIZE)
+            {
+                throw new IOException("Error: " + filename + " is not a graph file.");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if(header.getInt(0) != MAGIC)
+            {
+                throw new IOException("Error: " + filename + " is not a graph file.");
+            }
+            if(header.getInt(4) != VERSION)
+            {
+                throw new IOException(String.format("Error: Unsupported graph file version %d.", header.getInt(4)));
+            }
+            int flags = header.getInt(8);
+            if((flags & ~FLAG_WEIGHTED) != 0)
+            {
+                throw new IOException(String.format("Error: Unsupported graph file flags %x.", flags));
+            }
+            long vertices = header.getInt(12);
+            long edges = header.getLong(16);
+            long end = HEADER_SIZE + 4L * (vertices + vertices + 1 + edges);
+            if((flags & FLAG_WEIGHTED) != 0)
+            {
+                end = align(end) + 8L * edges;
+            }
+            if(vertices < 0 || edges < 0 || edges > Integer.MAX_VALUE || size != end)
+            {
+                throw new IOException("Error: " + filename + " is truncated or corrupt.");
+            }
+
+            long pos = HEADER_SIZE;
+            IntBuffer labels = mapInts(channel, pos, vertices);
+            pos += 4L * vertices;
+            IntBuffer offsets = mapInts(channel, pos, vertices + 1);
+            pos += 4L * (vertices + 1);
+            IntBuffer targets = mapInts(channel, pos, edges);
+            pos += 4L * edges;
+            DoubleBuffer weights = null;
+            if((flags & FLAG_WEIGHTED) != 0)
+            {
+                weights = mapDoubles(channel, align(pos), edges);
+            }
+            return new DSAFrozenGraph(labels, offsets, targets, weights);
+        }
+    }
+
+    //Rounds a file position up to a multiple of 8
+    private static long align(long pos)
+    {
+        return (pos + 7) & ~7L;
+    }
+
+    //The mapping stays valid after the channel is closed
+    private static IntBuffer mapInts(FileChannel channel, long pos, long count) throws IOException
+    {
+        if(count * 4 > Integer.MAX_VALUE)
+        {
+            throw new IOException("Error: Graph file section is over 2GB.");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, pos, count * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static DoubleBuffer mapDoubles(FileChannel channel, long pos, long count) throws IOException
+    {
+        if(count * 8 > Integer.MAX_VALUE)
+        {
+            throw new IOException("Error: Graph file section is over 2GB.");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, pos, count * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+
+    //Copies ints through the block buffer and writes them out
+    private static void writeInts(FileChannel channel, IntBuffer ints, ByteBuffer block) throws IOException
+    {
+        block.clear();
+        IntBuffer view = block.asIntBuffer();
+        while(ints.hasRemaining())
+        {
+            int count = Math.min(ints.remaining(), WRITE_BLOCK);
+            IntBuffer part = ints.duplicate();
+            part.limit(part.position() + count);
+            view.clear();
+            view.put(part);
+            ints.position(ints.position() + count);
+            block.clear();
+            block.limit(count * 4);
+            writeFully(channel, block);
+        }
+    }
+
+    //Copies doubles through the block buffer and writes them out
+    private static void writeDoubles(FileChannel channel, DoubleBuffer doubles, ByteBuffer block) throws IOException
+    {
+        block.clear();
+        DoubleBuffer view = block.asDoubleBuffer();
+        while(doubles.hasRemaining())
+        {
+            int count = Math.min(doubles.remaining(), WRITE_BLOCK / 2);
+            DoubleBuffer part = doubles.duplicate();
+            part.limit(part.position() + count);
+            view.clear();
+            view.put(part);
+            doubles.position(doubles.position() + count);
+            block.clear();
+            block.limit(count * 8);
+            writeFully(channel, block);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException
+    {
+        while(buf.hasRemaining())
+        {
+            channel.write(buf);
+        }
+    }
+}
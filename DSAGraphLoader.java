@@ -0,0 +1,301 @@
+/* *
+ * Luke McDougall
+ *
+ * Fast loader for large edge list files. Each line holds two integer vertex
+ * labels separated by spaces or tabs, e.g. "12 4087". Unlike the
+ * DSAGraph(String filename) constructor labels are whole integers rather
+ * than single characters.
+ *
+ * The file is split into chunks at line boundaries. Each chunk is memory
+ * mapped and parsed straight from the bytes into an int array of label
+ * pairs, so no Strings are made per line. Chunks can be parsed in parallel
+ * on the common fork join pool while earlier chunks are being inserted into
+ * the graph. Only a few chunks per core are parsed ahead of the one being
+ * inserted, so a large file is never all held in memory at once. Edges are
+ * always inserted in file order so the graph comes out the same either way.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class DSAGraphLoader
+{
+    //Chunk size limits. Mapped regions must be under 2GB.
+    private static final long MIN_CHUNK = 1L << 20;
+    private static final long MAX_CHUNK = 1L << 28;
+    //Chunks per core parsed or waiting to be inserted at once in parallel mode
+    private static final int IN_FLIGHT_PER_CORE = 2;
+    //Any digits past this are bad anyway, so a label's value stops growing here
+    private static final long LABEL_LIMIT = 1L << 31;
+
+    //INNER CLASS
+    //Edges parsed from one chunk of the file as (from, to) label pairs
+    private static class DSAEdgeChunk
+    {
+        public int[] edges;
+        public int count;
+        public int invalid;
+
+        public DSAEdgeChunk(int capacity)
+        {
+            edges = new int[capacity * 2];
+            count = 0;
+            invalid = 0;
+        }
+
+        public void add(int from, int to)
+        {
+            if(count * 2 == edges.length)
+            {
+                edges = Arrays.copyOf(edges, edges.length * 2);
+            }
+            edges[count * 2] = from;
+            edges[count * 2 + 1] = to;
+            count++;
+        }
+    }
+    //END INNER CLASS
+
+    /* Function: load
+     * Import: String filename.
+     * Export: DSAGraph graph.
+     * Loads the file parsing chunks in parallel.
+     */
+    public static DSAGraph load(String filename) throws IOException
+    {
+        return load(filename, true);
+    }
+
+    /* Function: load
+     * Import: String filename, boolean parallel.
+     * Export: DSAGraph graph.
+     *
+     * Builds a graph from an integer edge list file. Invalid lines and
+     * duplicate edges are skipped, and how many were skipped is printed once
+     * at the end rather than once per line.
+     */
+    public static DSAGraph load(String filename, boolean parallel) throws IOException
+    {
+        DSAGraph graph = new DSAGraph();
+        int invalid = 0;
+        int duplicates = 0;
+        try(FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ))
+        {
+            long[] bounds = chunkBounds(channel, parallel);
+            int chunks = bounds.length - 1;
+            if(parallel)
+            {
+                int window = IN_FLIGHT_PER_CORE * Runtime.getRuntime().availableProcessors();
+                List<ForkJoinTask<DSAEdgeChunk>> tasks = new ArrayList<ForkJoinTask<DSAEdgeChunk>>(chunks);
+                for(int i = 0; i < chunks; i++)
+                {
+                    tasks.add((i < window) ? submitChunk(channel, bounds, i) : null);
+                }
+                for(int i = 0; i < chunks; i++)
+                {
+                    DSAEdgeChunk chunk = joinChunk(tasks.get(i));
+                    tasks.set(i, null);     //Let the parsed chunk be collected once inserted
+                    if(i + window < chunks)
+                    {
+                        tasks.set(i + window, submitChunk(channel, bounds, i + window));
+                    }
+                    invalid += chunk.invalid;
+                    duplicates += graph.addEdges(chunk.edges, chunk.count);
+                }
+            }
+            else
+            {
+                for(int i = 0; i < chunks; i++)
+                {
+                    DSAEdgeChunk chunk = parseChunk(channel, bounds[i], bounds[i + 1]);
+                    invalid += chunk.invalid;
+                    duplicates += graph.addEdges(chunk.edges, chunk.count);
+                }
+            }
+        }
+        if(invalid > 0)
+        {
+            System.out.println(String.format("Error: Skipped %d invalid lines.", invalid));
+        }
+        if(duplicates > 0)
+        {
+            System.out.println(String.format("Error: Skipped %d duplicate edges.", duplicates));
+        }
+        return graph;
+    }
+
+    //Starts parsing chunk i on the common pool
+    private static ForkJoinTask<DSAEdgeChunk> submitChunk(FileChannel channel, long[] bounds, int i)
+    {
+        final long start = bounds[i];
+        final long end = bounds[i + 1];
+        return ForkJoinPool.commonPool().submit(() -> parseChunk(channel, start, end));
+    }
+
+    //Waits for a parse task, passing on any IOException it threw
+    private static DSAEdgeChunk joinChunk(ForkJoinTask<DSAEdgeChunk> task) throws IOException
+    {
+        try
+        {
+            return task.get();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading graph.");
+        }
+        catch(ExecutionException e)
+        {
+            if(e.getCause() instanceof IOException)
+            {
+                throw (IOException)e.getCause();
+            }
+            throw new IOException("Error parsing graph file: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /* Function: chunkBounds
+     * Import: FileChannel channel, boolean parallel.
+     * Export: long[] bounds.
+     *
+     * Splits the file into chunks that each end just after a newline (or at
+     * the end of the file). Chunk i is bounds[i] to bounds[i + 1]. In
+     * parallel mode the file is cut into about four chunks per core.
+     */
+    private static long[] chunkBounds(FileChannel channel, boolean parallel) throws IOException
+    {
+        long size = channel.size();
+        long chunkSize = MAX_CHUNK;
+        if(parallel)
+        {
+            long perCore = size / (4L * Runtime.getRuntime().availableProcessors());
+            chunkSize = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, perCore));
+        }
+        long[] bounds = new long[(int)(size / chunkSize) + 2];
+        int count = 1;
+        long pos = 0;
+        bounds[0] = 0;
+        while(pos < size)
+        {
+            long next = pos + chunkSize;
+            pos = (next >= size) ? size : afterNewline(channel, next, size);
+            bounds[count] = pos;
+            count++;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    //Returns the position just after the first newline at or after pos, or size if there isn't one
+    private static long afterNewline(FileChannel channel, long pos, long size) throws IOException
+    {
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        long found = -1;
+        while(found < 0 && pos < size)
+        {
+            buf.clear();
+            int read = channel.read(buf, pos);
+            for(int i = 0; i < read && found < 0; i++)
+            {
+                if(buf.get(i) == '\n')
+                {
+                    found = pos + i + 1;
+                }
+            }
+            pos += Math.max(read, 0);
+            if(read <= 0)
+            {
+                pos = size;
+            }
+        }
+        return (found < 0) ? size : found;
+    }
+
+    /* Function: parseChunk
+     * Import: FileChannel channel, long start, long end.
+     * Export: DSAEdgeChunk chunk.
+     *
+     * Maps the chunk and parses it a byte at a time. A line is valid if it
+     * has exactly two optionally negative integers that fit in an int. Blank
+     * lines are ignored.
+     */
+    private static DSAEdgeChunk parseChunk(FileChannel channel, long start, long end) throws IOException
+    {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buf.limit();
+        DSAEdgeChunk chunk = new DSAEdgeChunk(Math.max(16, Math.min(1 << 20, limit / 8)));
+        int tokens = 0;
+        long value = 0;
+        int first = 0;
+        int second = 0;
+        boolean inToken = false;
+        boolean negative = false;
+        boolean bad = false;
+        //Runs one past the end so a last line with no newline still gets finished
+        for(int i = 0; i <= limit; i++)
+        {
+            byte c = (i < limit) ? buf.get(i) : (byte)'\n';
+            if(c >= '0' && c <= '9')
+            {
+                if(value <= LABEL_LIMIT)
+                {
+                    value = value * 10 + (c - '0');
+                }
+                inToken = true;
+            }
+            else if(c == '-' && !inToken && !negative)
+            {
+                negative = true;
+            }
+            else if(c == ' ' || c == '\t' || c == '\r' || c == '\n')
+            {
+                if(inToken)
+                {
+                    long label = negative ? -value : value;
+                    tokens++;
+                    if(label < Integer.MIN_VALUE || label > Integer.MAX_VALUE)
+                    {
+                        bad = true;
+                    }
+                    else if(tokens == 1)
+                    {
+                        first = (int)label;
+                    }
+                    else
+                    {
+                        second = (int)label;
+                    }
+                }
+                else if(negative)
+                {
+                    bad = true;     //A lone '-'
+                }
+                value = 0;
+                inToken = false;
+                negative = false;
+                if(c == '\n')
+                {
+                    if(!bad && tokens == 2)
+                    {
+                        chunk.add(first, second);
+                    }
+                    else if(bad || tokens != 0)
+                    {
+                        chunk.invalid++;
+                    }
+                    tokens = 0;
+                    bad = false;
+                }
+            }
+            else
+            {
+                bad = true;
+            }
+        }
+        return chunk;
+    }
+}
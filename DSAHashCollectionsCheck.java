@@ -0,0 +1,251 @@
+/* *
+ * Luke McDougall
+ *
+ * Equivalence check for DSAHashSet and DSAHashMultimap. For every
+ * combination of DSAHashTable's options it runs random operations on each
+ * against java.util.HashSet and a HashMap of ArrayLists doing the same
+ * thing, and stops with an exception at the first difference.
+ *
+ * The set runs on a KEYS_ONLY table, so adds, removes, addAll and
+ * iteration are checked against HashSet. The multimap check covers
+ * putting repeated values, removing one value, removing a whole key, keys
+ * dropping out once their group is empty, and the group views staying read
+ * only while following later puts. Both iterate and compare every key at
+ * the end of each phase, and the key set grows and shrinks between phases
+ * so the tables resize.
+ *
+ * Usage: java DSAHashCollectionsCheck [ops] [seed]
+ *
+ * Last updated 18/10/2026
+ * */
+import java.util.*;
+
+public class DSAHashCollectionsCheck
+{
+    private static final int DEFAULT_OPS = 40000;    //Random operations per option set
+    private static final int PHASES = 6;             //Key set size changes per option set
+    private static final int BATCH = 16;             //Keys per addAll/containsAll
+    private static final int VALUES = 6;             //Distinct multimap values, so values repeat
+    private static final int COLLIDING_BITS = 6;     //2^bits colliding keys
+    //Every combination of the public options
+    private static final int ALL_OPTIONS = DSAHashTable.INCREMENTAL_RESIZE | DSAHashTable.POWER_OF_TWO
+        | DSAHashTable.ROBIN_HOOD | DSAHashTable.METRICS | DSAHashTable.HASH_FLOOD_GUARD;
+
+    public static void main(String[] args)
+    {
+        int ops = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_OPS;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 1L;
+        String[] colliding = collidingKeys(COLLIDING_BITS);
+        for(int options = 0; options <= ALL_OPTIONS; options++)
+        {
+            checkSet(options, ops, new Random(seed + options), colliding);
+            checkMultimap(options, ops, new Random(seed + options), colliding);
+            System.out.println(String.format("options %2d ok", options));
+        }
+        System.out.println("All DSAHashSet and DSAHashMultimap checks passed.");
+    }
+
+    //Strings made of "Aa" and "BB" pairs, which all have the same String.hashCode
+    private static String[] collidingKeys(int bits)
+    {
+        String[] keys = new String[1 << bits];
+        for(int m = 0; m < keys.length; m++)
+        {
+            StringBuilder key = new StringBuilder();
+            for(int i = 0; i < bits; i++)
+            {
+                key.append(((m >> i) & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[m] = key.toString();
+        }
+        return keys;
+    }
+
+    //Key space for a phase, sometimes the colliding keys
+    private static String key(Random rand, int space, String[] colliding)
+    {
+        String key;
+        if(rand.nextInt(8) == 0)
+        {
+            key = colliding[rand.nextInt(colliding.length)];
+        }
+        else
+        {
+            key = "k" + rand.nextInt(space);
+        }
+        return key;
+    }
+
+    //Alternates between a big key set to grow into and a small one to shrink back to
+    private static int space(Random rand, int phase)
+    {
+        return (phase % 2 == 0) ? 64 << rand.nextInt(6) : 1 + rand.nextInt(16);
+    }
+
+    /* Function: checkSet
+     * Import: int options, int ops, Random rand, String[] colliding.
+     * Export: None.
+     * Runs ops random operations on a DSAHashSet and a HashSet, comparing
+     * every result and, at the end of each phase, the whole contents.
+     */
+    private static void checkSet(int options, int ops, Random rand, String[] colliding)
+    {
+        DSAHashSet set = new DSAHashSet(1 + rand.nextInt(16), options);
+        HashSet<String> expected = new HashSet<String>();
+        String[] keys = new String[BATCH];
+        for(int phase = 0; phase < PHASES; phase++)
+        {
+            int space = space(rand, phase);
+            for(int op = 0; op < ops / PHASES; op++)
+            {
+                int choice = rand.nextInt(100);
+                String key = key(rand, space, colliding);
+                if(choice < 35)
+                {
+                    expect(set.add(key) == expected.add(key), "Set", options, "add " + key);
+                }
+                else if(choice < 55)
+                {
+                    expect(set.contains(key) == expected.contains(key), "Set", options, "contains " + key);
+                }
+                else if(choice < 75)
+                {
+                    expect(set.remove(key) == expected.remove(key), "Set", options, "remove " + key);
+                }
+                else if(choice < 85)
+                {
+                    //Draining the big phase's keys takes the set towards a shrink
+                    String old = "k" + rand.nextInt(64 << 5);
+                    expect(set.remove(old) == expected.remove(old), "Set", options, "remove " + old);
+                }
+                else
+                {
+                    for(int i = 0; i < BATCH; i++)
+                    {
+                        keys[i] = key(rand, space, colliding);
+                    }
+                    boolean all = expected.containsAll(Arrays.asList(keys));
+                    expect(set.containsAll(keys) == all, "Set", options, "containsAll");
+                    if(choice < 95)
+                    {
+                        set.addAll(keys);
+                        expected.addAll(Arrays.asList(keys));
+                    }
+                }
+                expect(set.getSize() == expected.size(), "Set", options, "size " + set.getSize() + " vs " + expected.size());
+            }
+            HashSet<String> seen = new HashSet<String>();
+            for(String key : set)
+            {
+                expect(expected.contains(key) && seen.add(key), "Set", options, "iterated " + key);
+            }
+            expect(seen.size() == expected.size(), "Set", options, "iterated " + seen.size() + " keys");
+            expect(set.stream(true).count() == expected.size(), "Set", options, "parallel stream count");
+        }
+    }
+
+    /* Function: checkMultimap
+     * Import: int options, int ops, Random rand, String[] colliding.
+     * Export: None.
+     * Runs ops random operations on a DSAHashMultimap and a HashMap of
+     * ArrayLists, comparing every result and, at the end of each phase,
+     * every key's group.
+     */
+    private static void checkMultimap(int options, int ops, Random rand, String[] colliding)
+    {
+        DSAHashMultimap<Integer> multimap = new DSAHashMultimap<Integer>(1 + rand.nextInt(16), options);
+        HashMap<String, List<Integer>> expected = new HashMap<String, List<Integer>>();
+        int size = 0;
+        for(int phase = 0; phase < PHASES; phase++)
+        {
+            int space = space(rand, phase);
+            for(int op = 0; op < ops / PHASES; op++)
+            {
+                int choice = rand.nextInt(100);
+                String key = key(rand, space, colliding);
+                List<Integer> group = expected.get(key);
+                if(choice < 40)
+                {
+                    //A view taken before the put must show the new value
+                    List<Integer> view = multimap.get(key);
+                    Integer value = rand.nextInt(VALUES);
+                    multimap.put(key, value);
+                    if(group == null)
+                    {
+                        group = new ArrayList<Integer>();
+                        expected.put(key, group);
+                        group.add(value);
+                    }
+                    else
+                    {
+                        group.add(value);
+                        expect(view.equals(group), "Multimap", options, "view of " + key + " after put");
+                    }
+                    size++;
+                }
+                else if(choice < 60)
+                {
+                    List<Integer> actual = multimap.get(key);
+                    expect(actual.equals((group == null) ? Collections.emptyList() : group), "Multimap", options, "get " + key);
+                    expect(multimap.containsKey(key) == (group != null), "Multimap", options, "containsKey " + key);
+                    expect(readOnly(actual), "Multimap", options, "read only view of " + key);
+                }
+                else if(choice < 85)
+                {
+                    Integer value = rand.nextInt(VALUES);
+                    boolean removed = (group != null) && group.remove(value);
+                    expect(multimap.remove(key, value) == removed, "Multimap", options, "remove " + key + " " + value);
+                    if(removed)
+                    {
+                        size--;
+                        if(group.isEmpty())
+                        {
+                            expected.remove(key);
+                        }
+                    }
+                    expect(multimap.containsKey(key) == expected.containsKey(key), "Multimap", options, "empty group " + key);
+                }
+                else
+                {
+                    int count = (group == null) ? 0 : group.size();
+                    expect(multimap.removeAll(key) == count, "Multimap", options, "removeAll " + key);
+                    expected.remove(key);
+                    size -= count;
+                    expect(!multimap.containsKey(key), "Multimap", options, "removed key " + key);
+                }
+                expect(multimap.getSize() == size, "Multimap", options, "size " + multimap.getSize() + " vs " + size);
+                expect(multimap.getKeyCount() == expected.size(), "Multimap", options, "key count");
+            }
+            int keys = 0;
+            for(String key : multimap.keys())
+            {
+                expect(multimap.get(key).equals(expected.get(key)), "Multimap", options, "iterated " + key);
+                keys++;
+            }
+            expect(keys == expected.size(), "Multimap", options, "iterated " + keys + " keys");
+        }
+    }
+
+    //True if the group view refuses changes
+    private static boolean readOnly(List<Integer> view)
+    {
+        boolean refused = false;
+        try
+        {
+            view.add(0);
+        }
+        catch(UnsupportedOperationException e)
+        {
+            refused = true;
+        }
+        return refused;
+    }
+
+    private static void expect(boolean condition, String what, int options, String detail)
+    {
+        if(!condition)
+        {
+            throw new IllegalStateException(String.format("%s options %d: %s differs from java.util.", what, options, detail));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/* *
+ * Luke McDougall
+ *
+ * Maps each string key to a group of values, on the same double hashing and
+ * resize engine as DSAHashTable. Each key's values are kept together in one
+ * array that doubles as it fills, so a key with one value costs one slot
+ * rather than a list node or a list with room for ten, and reading a
+ * group is a walk over contiguous memory.
+ *
+ * Values are kept in the order they were put and the same value can be put
+ * more than once. A key is dropped once its last value is removed. As with
+ * DSAHashTable the map must not be changed while iterating over it.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+
+public class DSAHashMultimap<T>
+{
+    private DSAHashTable<DSAValueGroup<T>> table;
+    private int size;
+
+    public DSAHashMultimap(int maxSize)
+    {
+        this(maxSize, 0);
+    }
+
+    public DSAHashMultimap(int maxSize, int options)
+    {
+        table = new DSAHashTable<DSAValueGroup<T>>(maxSize, options);
+        size = 0;
+    }
+
+    /*INNER CLASS*/
+    //One key's values. Handed out by get as a read only list that follows later changes.
+    private static class DSAValueGroup<T> extends AbstractList<T>
+    {
+        private Object[] values;
+        private int count;
+
+        public DSAValueGroup()
+        {
+            values = new Object[1];
+            count = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T get(int index)
+        {
+            if(index < 0 || index >= count)
+            {
+                throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for %d values.", index, count));
+            }
+            return (T)values[index];
+        }
+
+        public int size()
+        {
+            return count;
+        }
+
+        public void append(T value)
+        {
+            if(count == values.length)
+            {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count] = value;
+            count++;
+        }
+
+        //Removes the first copy of value, keeping the order of the rest
+        public boolean delete(T value)
+        {
+            int index = indexOf(value);
+            if(index >= 0)
+            {
+                System.arraycopy(values, index + 1, values, index, count - index - 1);
+                count--;
+                values[count] = null;
+            }
+            return index >= 0;
+        }
+    }
+    /*END INNER CLASS*/
+
+    //Total values over every key
+    public int getSize()
+    {
+        return size;
+    }
+
+    public int getKeyCount()
+    {
+        return table.getSize();
+    }
+
+    /* Function: put
+     * Import: String key, T value
+     * Export: None
+     * Adds value to the end of key's group, making the group if key is new.
+     */
+    public void put(String key, T value)
+    {
+        DSAValueGroup<T> group = table.getOrDefault(key, null);
+        if(group == null)
+        {
+            group = new DSAValueGroup<T>();
+            table.put(key, group);
+        }
+        group.append(value);
+        size++;
+    }
+
+    /* Function: get
+     * Import: String key
+     * Export: List<T> values
+     * Returns key's values as a read only list, empty if key isn't present.
+     */
+    public List<T> get(String key)
+    {
+        DSAValueGroup<T> group = table.getOrDefault(key, null);
+        if(group == null)
+        {
+            return Collections.emptyList();
+        }
+        return group;
+    }
+
+    public boolean containsKey(String key)
+    {
+        return table.containsKey(key);
+    }
+
+    /* Function: remove
+     * Import: String key, T value
+     * Export: boolean removed
+     * Removes one copy of value from key's group, dropping key if it was the
+     * last value. Returns false if key didn't have value.
+     */
+    public boolean remove(String key, T value)
+    {
+        DSAValueGroup<T> group = table.getOrDefault(key, null);
+        boolean removed = (group != null) && group.delete(value);
+        if(removed)
+        {
+            size--;
+            if(group.size() == 0)
+            {
+                table.remove(key);
+            }
+        }
+        return removed;
+    }
+
+    /* Function: removeAll
+     * Import: String key
+     * Export: int removed
+     * Removes key and all of its values, returning how many values it had.
+     */
+    public int removeAll(String key)
+    {
+        DSAValueGroup<T> group = table.getOrDefault(key, null);
+        int removed = 0;
+        if(group != null)
+        {
+            removed = group.size();
+            size -= removed;
+            table.remove(key);
+        }
+        return removed;
+    }
+
+    //View of the keys. Iterating it has the same rules as iterating the map.
+    public Iterable<String> keys()
+    {
+        return table.keys();
+    }
+}
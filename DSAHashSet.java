@@ -0,0 +1,98 @@
+/* *
+ * Luke McDougall
+ *
+ * Set of strings on the same double hashing and resize engine as
+ * DSAHashTable. The table is made with KEYS_ONLY so it has no values array,
+ * and a set entry costs a key, its cached hash and a state byte.
+ *
+ * Options are the DSAHashTable ones. As with DSAHashTable the set must not
+ * be changed while iterating over it.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+import java.util.stream.*;
+
+public class DSAHashSet implements Iterable<String>
+{
+    private DSAHashTable<Object> table;
+
+    public DSAHashSet(int maxSize)
+    {
+        this(maxSize, 0);
+    }
+
+    public DSAHashSet(int maxSize, int options)
+    {
+        table = new DSAHashTable<Object>(maxSize, options | DSAHashTable.KEYS_ONLY);
+    }
+
+    public int getSize()
+    {
+        return table.getSize();
+    }
+
+    /* Function: add
+     * Import: String key
+     * Export: boolean added
+     * Adds key to the set. Returns false if it was already there.
+     */
+    public boolean add(String key)
+    {
+        int size = table.getSize();
+        table.put(key, null);
+        return table.getSize() != size;
+    }
+
+    /* Function: addAll
+     * Import: String[] keys
+     * Export: None
+     * Adds every key, growing the set once up front as DSAHashTable.putAll does.
+     */
+    public void addAll(String[] keys)
+    {
+        table.putAll(keys, null);
+    }
+
+    /* Function: remove
+     * Import: String key
+     * Export: boolean removed
+     * Removes key from the set. Returns false if it wasn't there.
+     */
+    public boolean remove(String key)
+    {
+        return table.removeKey(key);
+    }
+
+    public boolean contains(String key)
+    {
+        return table.containsKey(key);
+    }
+
+    //True if every key is in the set
+    public boolean containsAll(String[] keys)
+    {
+        return table.containsAll(keys);
+    }
+
+    public DSAHashTableStats stats()
+    {
+        return table.stats();
+    }
+
+    public Iterator<String> iterator()
+    {
+        return table.keys().iterator();
+    }
+
+    public Spliterator<String> spliterator()
+    {
+        return table.keys().spliterator();
+    }
+
+    //Stream of the keys, parallel if asked
+    public Stream<String> stream(boolean parallel)
+    {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+}
@@ -5,114 +5,1101 @@
  *
  * Last updated 13/05/2019
  * */
+import java.lang.management.*;
 import java.util.*;
-import java.lang.reflect.Array;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+import javax.management.*;
 
-public class DSAHashTable<T>
+public class DSAHashTable<T> implements Iterable<Map.Entry<String, T>>
 {
-    
+    //Options, combine with |
+    public static final int INCREMENTAL_RESIZE = 1;    //Spread resizes over later puts and removes
+    public static final int POWER_OF_TWO = 2;          //Power of two capacities, masks instead of primes
+    public static final int ROBIN_HOOD = 4;            //Robin Hood linear probing, runs at a higher load
+    public static final int METRICS = 8;               //Count probes, collisions and resizes for stats()
+    public static final int HASH_FLOOD_GUARD = 16;     //Switch to a randomly seeded hash if a put probes too far
+    //No values array, every value reads as null. Used by DSAHashSet.
+    static final int KEYS_ONLY = 1 << 30;
+
+    //Slot states
+    private static final byte EMPTY = 0;    //Never used, ends a probe sequence
+    private static final byte FULL = 1;     //Holds an entry
+    private static final byte FREED = 2;    //Entry was removed, probing carries on past it
+
+    //Rebuild once live plus FREED slots reach MAX_LOAD, shrink once live
+    //entries drop to MIN_LOAD. Either way the new table is at TARGET_LOAD.
+    private static final double MAX_LOAD = 0.6;
+    private static final double MIN_LOAD = 0.15;
+    private static final double TARGET_LOAD = 0.5;
+    //Robin Hood probe lengths stay short at loads double hashing can't manage
+    private static final double ROBIN_HOOD_MAX_LOAD = 0.85;
+    private static final double ROBIN_HOOD_TARGET_LOAD = 0.7;
+
+    //Old slots moved across by each put or remove during an incremental resize
+    private static final int MIGRATE_STEP = 16;
+
+    //Keys hashed at a time by getAll and containsAll
+    private static final int BATCH = 64;
+
+    //Returned by lookup when there's no live entry for the key
+    private static final Object MISSING = new Object();
+
+    //Spliterators over fewer positions than this won't split
+    private static final int MIN_SPLIT = 1024;
+
+    //Probe histogram buckets, the last one counts everything longer
+    private static final int HISTOGRAM_SIZE = 32;
+
+    //Probes a put can take before HASH_FLOOD_GUARD picks a new seed. Robin
+    //Hood runs fuller so its clusters are longer to start with.
+    private static final int CHAIN_LIMIT = 64;
+    private static final int ROBIN_HOOD_CHAIN_LIMIT = 256;
+
+    /*INNER CLASS*/
+    //Running counts kept with METRICS. See DSAHashTableStats.
+    private static class DSAHashMetrics
+    {
+        public long[] lookupProbes = new long[HISTOGRAM_SIZE];
+        public long[] insertProbes = new long[HISTOGRAM_SIZE];
+        public long hashCollisions = 0;
+        public long resizes = 0;
+        public long resizeNanos = 0;
+        public long rehashes = 0;
+    }
+    /*END INNER CLASS*/
+
+    /*INNER CLASS*/
+    /* One array of slots. Slots are stored as parallel arrays rather than one
+     * entry object per slot, so making a table is just zeroed array
+     * allocations and a probe only touches the arrays it needs. hashes caches
+     * each key's hash before it is reduced mod capacity so mismatched keys can
+     * usually be rejected without String.equals, and both the home slot and
+     * the probe step come from the cached hash so resizing never looks at the
+     * strings.
+     *
+     * A prime capacity reduces hashes with % and steps by a second hash mod
+     * maxStep. A power of two capacity masks instead and uses an odd step,
+     * which is coprime to the capacity so the probe still visits every slot.
+     *
+     * With ROBIN_HOOD the step is always 1, so a probe reads neighbouring
+     * slots rather than jumping around the arrays. An insert takes the slot of
+     * any entry nearer its home slot than the insert is to its own, and pushes
+     * that entry along instead. Every entry is then roughly as far from home
+     * as its neighbours, a lookup can stop at the first entry nearer home than
+     * it is, and remove shifts the following entries back a slot rather than
+     * leaving a FREED slot. Old tables being migrated still get FREED slots,
+     * which keep their hash so the early stop still works past them.
+     *
+     * seed is the hash seed the cached hashes were made with, 0 for the
+     * unseeded hash. lastProbes is how many slots the last findForInsert
+     * looked at.
+     *
+     * Cache mode adds a CLOCK reference bit per slot and, with a time to live,
+     * the System.nanoTime() each entry expires at (0 for never). Neither is
+     * allocated otherwise. Both move with the entry. New entries start with
+     * the reference bit clear so one that's never read is evicted first.
+     */
+    private class DSAHashSlots
+    {
+        public String[] keys;
+        public Object[] values;
+        public int[] hashes;
+        public byte[] state;
+        public int capacity;
+        public int mask;        //capacity - 1 for power of two tables, otherwise -1
+        public int maxStep;
+        public boolean robinHood;
+        public byte[] referenced;
+        public long[] expires;
+        public long seed;
+        public int lastProbes;
+        public int size;
+        public int freed;
+
+        public DSAHashSlots(int capacity, long seed)
+        {
+            boolean powerOfTwo = (options & POWER_OF_TWO) != 0;
+            this.capacity = capacity;
+            keys = new String[capacity];
+            values = ((options & KEYS_ONLY) != 0) ? null : new Object[capacity];
+            hashes = new int[capacity];
+            state = new byte[capacity];
+            mask = powerOfTwo ? capacity - 1 : -1;
+            maxStep = powerOfTwo ? 0 : nextPrime(capacity / 2);   //Max step for double hashing
+            robinHood = (options & ROBIN_HOOD) != 0;
+            this.seed = seed;
+            lastProbes = 0;
+            referenced = (maxEntries > 0) ? new byte[capacity] : null;
+            expires = (ttl > 0) ? new long[capacity] : null;
+            size = 0;
+            freed = 0;
+        }
+
+        //Index of the first slot in h's probe sequence
+        public int home(int h)
+        {
+            return (mask >= 0) ? (h & mask) : (h % capacity);
+        }
+
+        /* Distance between slots in h's probe sequence. Taken from the high
+         * bits of h since the home slot comes from the low ones. Always less
+         * than capacity.
+         */
+        public int step(int h)
+        {
+            int step;
+            if(robinHood)
+            {
+                step = 1;
+            }
+            else if(mask >= 0)
+            {
+                step = ((h >>> 16) | 1) & mask;
+            }
+            else
+            {
+                step = (h >>> 12) % maxStep;
+                step = (step == 0) ? 1 : step;
+            }
+            return step;
+        }
+
+        //Next slot in a probe sequence. step < capacity so this needs no division.
+        public int next(int index, int step)
+        {
+            index += step;
+            return (index >= capacity) ? index - capacity : index;
+        }
+
+        //Number of steps slot index is from h's home slot. Only used by Robin Hood tables.
+        public int distance(int index, int h)
+        {
+            int dist = index - home(h);
+            return (dist < 0) ? dist + capacity : dist;
+        }
+
+        //True if a probe dist steps from home can stop at index because its
+        //entry is nearer its own home. Always false without Robin Hood.
+        private boolean richer(int index, int dist)
+        {
+            return robinHood && distance(index, hashes[index]) < dist;
+        }
+
+        //Stores an entry known not to be here in the first free slot of its probe sequence
+        public void insert(String key, Object value, int h, long expiry, byte ref)
+        {
+            int index = home(h);
+            if(state[index] == FULL)
+            {
+                int step = step(h);
+                int dist = 0;
+                do 
+                {
+                    index = next(index, step);
+                    dist++;
+                }while(state[index] == FULL && !richer(index, dist));
+            }
+            insertAt(index, key, value, h, expiry, ref);
+        }
+
+        //Stores the entry at index. In a Robin Hood table any entry already
+        //there is pushed along to the next slot it's allowed, and so on.
+        public void insertAt(int index, String key, Object value, int h, long expiry, byte ref)
+        {
+            if(robinHood && state[index] == FULL)
+            {
+                int dist = distance(index, h);
+                while(state[index] == FULL)
+                {
+                    int d = distance(index, hashes[index]);
+                    if(d < dist)
+                    {
+                        String k = keys[index];
+                        Object v = valueAt(index);
+                        int hh = hashes[index];
+                        long e = expiryAt(index);
+                        byte rf = refAt(index);
+                        keys[index] = key;
+                        setValue(index, value);
+                        hashes[index] = h;
+                        setExpiry(index, expiry);
+                        setRef(index, ref);
+                        key = k;
+                        value = v;
+                        h = hh;
+                        expiry = e;
+                        ref = rf;
+                        dist = d;
+                    }
+                    index = next(index, 1);
+                    dist++;
+                }
+            }
+            if(state[index] == FREED)
+            {
+                freed--;
+            }
+            keys[index] = key;
+            setValue(index, value);
+            hashes[index] = h;
+            state[index] = FULL;
+            setExpiry(index, expiry);
+            setRef(index, ref);
+            size++;
+        }
+
+        public byte refAt(int index)
+        {
+            return (referenced == null) ? 0 : referenced[index];
+        }
+
+        public void setRef(int index, byte ref)
+        {
+            if(referenced != null)
+            {
+                referenced[index] = ref;
+            }
+        }
+
+        public Object valueAt(int index)
+        {
+            return (values == null) ? null : values[index];
+        }
+
+        public void setValue(int index, Object value)
+        {
+            if(values != null)
+            {
+                values[index] = value;
+            }
+        }
+
+        public long expiryAt(int index)
+        {
+            return (expires == null) ? 0 : expires[index];
+        }
+
+        public void setExpiry(int index, long expiry)
+        {
+            if(expires != null)
+            {
+                expires[index] = expiry;
+            }
+        }
+
+        //True if the entry at index has a time to live and it has run out
+        public boolean expired(int index, long now)
+        {
+            return expires != null && expires[index] != 0 && now - expires[index] >= 0;
+        }
+
+        //Like find but when key isn't here returns -(slot + 1) where slot is
+        //where insertAt should put it, the first FREED slot seen if there was
+        //one. Robin Hood tables have no FREED slots to reuse.
+        public int findForInsert(String key, int h)
+        {
+            int index = home(h);
+            int step = 0;
+            int probes = 1;
+            int reuse = -1;
+            int found = -1;
+            while(found < 0 && state[index] != EMPTY && probes <= capacity && !richer(index, probes - 1))
+            {
+                if(matches(index, key, h))
+                {
+                    found = index;
+                }
+                else
+                {
+                    if(reuse < 0 && state[index] == FREED)
+                    {
+                        reuse = index;
+                    }
+                    if(step == 0)
+                    {
+                        step = step(h);
+                    }
+                    index = next(index, step);
+                    probes++;
+                }
+            }
+            if(found < 0)
+            {
+                //Ran into an EMPTY slot, or went all the way round a table with none
+                found = -((reuse >= 0) ? reuse : index) - 1;
+            }
+            if(metrics != null)
+            {
+                metrics.insertProbes[Math.min(probes, HISTOGRAM_SIZE) - 1]++;
+            }
+            lastProbes = probes;
+            return found;
+        }
+
+        //Returns the index of the slot holding key, or -1 if it isn't here.
+        //Gives up after capacity probes since a table may have no EMPTY slots.
+        public int find(String key, int h)
+        {
+            int index = home(h);
+            int step = 0;
+            int probes = 1;
+            boolean found = matches(index, key, h);
+            while(!found && state[index] != EMPTY && probes < capacity && !richer(index, probes - 1))
+            {
+                if(step == 0)
+                {
+                    step = step(h);
+                }
+                index = next(index, step);
+                found = matches(index, key, h);
+                probes++;
+            }
+            if(metrics != null)
+            {
+                metrics.lookupProbes[Math.min(probes, HISTOGRAM_SIZE) - 1]++;
+            }
+            return found ? index : -1;
+        }
+
+        //Empties a slot, leaving it FREED so probe sequences through it still work
+        public void free(int index)
+        {
+            keys[index] = null;
+            setValue(index, null);
+            state[index] = FREED;
+            size--;
+            freed++;
+        }
+
+        //Removes the entry at index. Robin Hood tables shift the entries after
+        //it back a slot until one is already home, so no FREED slot is left.
+        public void delete(int index)
+        {
+            if(robinHood)
+            {
+                int next = next(index, 1);
+                while(state[next] == FULL && distance(next, hashes[next]) > 0)
+                {
+                    keys[index] = keys[next];
+                    setValue(index, valueAt(next));
+                    hashes[index] = hashes[next];
+                    setExpiry(index, expiryAt(next));
+                    setRef(index, refAt(next));
+                    index = next;
+                    next = next(next, 1);
+                }
+                keys[index] = null;
+                setValue(index, null);
+                state[index] = EMPTY;
+                size--;
+            }
+            else
+            {
+                free(index);
+            }
+        }
+
+        //True if the slot holds key. Compares cached hashes before the strings.
+        private boolean matches(int index, String key, int h)
+        {
+            boolean match = state[index] == FULL && hashes[index] == h;
+            if(match)
+            {
+                match = keys[index].equals(key);
+                if(!match && metrics != null)
+                {
+                    metrics.hashCollisions++;
+                }
+            }
+            return match;
+        }
+    }
+    /*END INNER CLASS*/
+
+    /*INNER CLASS*/
+    //Turns the key and value in a slot into the element a spliterator hands out
+    private interface DSASlotReader<E>
+    {
+        E read(String key, Object value);
+    }
+    /*END INNER CLASS*/
+
+    /*INNER CLASS*/
+    /* Walks a range of slots handing out the FULL ones. During a migration
+     * the not yet moved part of the old table comes first, then the new
+     * table, numbered as one run of positions so a range can be split
+     * anywhere. The tables are fixed when the spliterator is made, so it's
+     * only well defined if the table isn't changed while it's in use.
+     *
+     * The spliterator for the whole table is SIZED. Splitting just halves
+     * the positions, so the halves only estimate their size.
+     */
+    private class DSASlotSpliterator<E> implements Spliterator<E>
+    {
+        private DSASlotReader<E> reader;
+        private DSAHashSlots oldSlots;
+        private int oldStart;
+        private int oldLength;
+        private DSAHashSlots slots;
+        private int pos;
+        private int end;
+        private long estimate;
+        private int characteristics;
+        private long now;
+
+        public DSASlotSpliterator(DSASlotReader<E> reader, int characteristics)
+        {
+            this.reader = reader;
+            oldSlots = m_oldTable;
+            oldStart = migrateIndex;
+            oldLength = (oldSlots == null) ? 0 : oldSlots.capacity - oldStart;
+            slots = m_table;
+            pos = 0;
+            end = oldLength + slots.capacity;
+            estimate = getSize();
+            //Expired entries are in the size but get skipped
+            this.characteristics = characteristics | ((ttl > 0) ? 0 : Spliterator.SIZED);
+            now = System.nanoTime();
+        }
+
+        //Makes the second half of parent's range, leaving parent the first
+        private DSASlotSpliterator(DSASlotSpliterator<E> parent, int mid)
+        {
+            reader = parent.reader;
+            oldSlots = parent.oldSlots;
+            oldStart = parent.oldStart;
+            oldLength = parent.oldLength;
+            slots = parent.slots;
+            pos = mid;
+            end = parent.end;
+            estimate = parent.estimate / 2;
+            characteristics = parent.characteristics & ~Spliterator.SIZED;
+            now = parent.now;
+            parent.end = mid;
+            parent.estimate -= estimate;
+            parent.characteristics = characteristics;
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action)
+        {
+            boolean found = false;
+            while(!found && pos < end)
+            {
+                found = visit(pos, action);
+                pos++;
+            }
+            return found;
+        }
+
+        public void forEachRemaining(Consumer<? super E> action)
+        {
+            for(; pos < end; pos++)
+            {
+                visit(pos, action);
+            }
+        }
+
+        //Passes the entry at position p to action if there is one
+        private boolean visit(int p, Consumer<? super E> action)
+        {
+            DSAHashSlots table = slots;
+            int index = p - oldLength;
+            if(p < oldLength)
+            {
+                table = oldSlots;
+                index = oldStart + p;
+            }
+            boolean full = table.state[index] == FULL && !table.expired(index, now);
+            if(full)
+            {
+                action.accept(reader.read(table.keys[index], table.valueAt(index)));
+            }
+            return full;
+        }
+
+        public Spliterator<E> trySplit()
+        {
+            Spliterator<E> split = null;
+            if(end - pos >= MIN_SPLIT)
+            {
+                split = new DSASlotSpliterator<E>(this, (pos + end) >>> 1);
+            }
+            return split;
+        }
+
+        public long estimateSize()
+        {
+            return estimate;
+        }
+
+        public int characteristics()
+        {
+            return characteristics;
+        }
+    }
+    /*END INNER CLASS*/
+
+    /*INNER CLASS*/
+    //Iterable view of the keys or values
+    private class DSASlotView<E> implements Iterable<E>
+    {
+        private DSASlotReader<E> reader;
+        private int characteristics;
+
+        public DSASlotView(DSASlotReader<E> reader, int characteristics)
+        {
+            this.reader = reader;
+            this.characteristics = characteristics;
+        }
+
+        public Iterator<E> iterator()
+        {
+            return Spliterators.iterator(spliterator());
+        }
+
+        public Spliterator<E> spliterator()
+        {
+            return new DSASlotSpliterator<E>(reader, characteristics);
+        }
+    }
+    /*END INNER CLASS*/
+
     /*INNER CLASS*/
-    private class DSAHashEntry
+    //What register() hands to JMX. Every attribute reads a new stats() snapshot.
+    private class DSAHashTableBean implements DSAHashTableMXBean
     {
-        public boolean empty;
-        public boolean used;
-        public String key;
-        public T value;
+        public int getSize()
+        {
+            return stats().getSize();
+        }
+
+        public int getCapacity()
+        {
+            return stats().getCapacity();
+        }
+
+        public double getLoad()
+        {
+            return stats().getLoad();
+        }
+
+        public int getTombstones()
+        {
+            return stats().getTombstones();
+        }
+
+        public boolean isMetricsEnabled()
+        {
+            return stats().hasMetrics();
+        }
+
+        public long[] getLookupProbes()
+        {
+            return stats().getLookupProbes();
+        }
+
+        public long[] getInsertProbes()
+        {
+            return stats().getInsertProbes();
+        }
+
+        public double getMeanLookupProbes()
+        {
+            return stats().getMeanLookupProbes();
+        }
+
+        public double getMeanInsertProbes()
+        {
+            return stats().getMeanInsertProbes();
+        }
+
+        public long getHashCollisions()
+        {
+            return stats().getHashCollisions();
+        }
+
+        public long getResizes()
+        {
+            return stats().getResizes();
+        }
+
+        public long getResizeNanos()
+        {
+            return stats().getResizeNanos();
+        }
+
+        public long getRehashes()
+        {
+            return stats().getRehashes();
+        }
+    }
+    /*END INNER CLASS*/
+
+    private DSAHashSlots m_table;
+    //Table being emptied into m_table during an incremental resize, otherwise null
+    private DSAHashSlots m_oldTable;
+    //Slots of m_oldTable below this have been moved across
+    private int migrateIndex;
+    //Shrinking never goes below the capacity the table was made with
+    private int minCapacity;
+    private double maxLoad;
+    private double targetLoad;
+    private int options;
+    //Cache mode, see the constructor. maxEntries 0 means no limit, ttl 0 no expiry.
+    private int maxEntries;
+    private long ttl;
+    private int clockHand;
+    //CLOCK hand over m_oldTable's slots still to be moved, never behind migrateIndex
+    private int oldClockHand;
+    private long hits;
+    private long misses;
+    private long evictions;
+    //Only made with METRICS, so every check for it is just a null test
+    private DSAHashMetrics metrics;
+    private ObjectName mbeanName;
+ 
+    public DSAHashTable(int maxSize)
+    {
+        this(maxSize, 0);
+    }
+
+    /* Constructor
+     * Import: int maxSize, int options
+     * options is 0 or some of the option flags combined with |.
+     * With INCREMENTAL_RESIZE a resize just allocates the new table; entries
+     * are then moved MIGRATE_STEP old slots at a time by each put and remove,
+     * and lookups check both tables until the move is done. This bounds the
+     * work any one call does.
+     * With POWER_OF_TWO capacities are rounded up to a power of two rather
+     * than a prime, so slots are found with a mask instead of a division.
+     * With ROBIN_HOOD slots are probed linearly, Robin Hood style, and the
+     * table is allowed to fill to ROBIN_HOOD_MAX_LOAD before it grows.
+     * With METRICS probe lengths, hash collisions and resizes are counted
+     * for stats(). Without it none of that is done.
+     * With HASH_FLOOD_GUARD a put that probes more than CHAIN_LIMIT slots
+     * means keys are colliding far more than they should, e.g. because they
+     * were picked to share String.hashCode() values. The table then switches
+     * to a per-character hash with a random seed and moves every entry to a
+     * new table under it, incrementally like INCREMENTAL_RESIZE.
+     */
+    public DSAHashTable(int maxSize, int options)
+    {
+        this(maxSize, options, 0, 0L);
+    }
+
+    /* Constructor
+     * Import: int maxSize, int options, int maxEntries, long ttlMillis
+     *
+     * Makes the table a cache. Once it holds maxEntries entries, putting a
+     * new key first evicts one using CLOCK: a hand sweeps the slots, clearing
+     * the reference bit of each entry that get has used since the hand last
+     * passed and evicting the first one it finds already clear. With
+     * ttlMillis > 0 entries expire that long after they were last put, and
+     * expired entries are treated as absent and dropped when found. Either
+     * can be 0 to turn it off. Hits, misses and evictions are counted.
+     *
+     * In cache mode get writes to the table, so it must not be called
+     * concurrently even with other gets.
+     */
+    public DSAHashTable(int maxSize, int options, int maxEntries, long ttlMillis)
+    {
+        if(maxSize < 1)
+        {
+            throw new IllegalArgumentException("Max size must be positive.");
+        }
+        if(maxEntries < 0 || ttlMillis < 0)
+        {
+            throw new IllegalArgumentException("Max entries and time to live can't be negative.");
+        }
+        this.options = options;
+        this.maxEntries = maxEntries;
+        ttl = ttlMillis * 1000000L;
+        clockHand = 0;
+        oldClockHand = 0;
+        metrics = ((options & METRICS) != 0) ? new DSAHashMetrics() : null;
+        mbeanName = null;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        boolean robinHood = (options & ROBIN_HOOD) != 0;
+        maxLoad = robinHood ? ROBIN_HOOD_MAX_LOAD : MAX_LOAD;
+        targetLoad = robinHood ? ROBIN_HOOD_TARGET_LOAD : TARGET_LOAD;
+        //Returns the next lowest prime greater than max size unless maxSize is prime
+        m_table = new DSAHashSlots(roundCapacity(maxSize), 0L);
+        minCapacity = m_table.capacity;
+        m_oldTable = null;
+        migrateIndex = 0;
+    }
+    
+    //Reads each table once so a JMX thread can call it while a migration ends
+    public int getSize()
+    {
+        DSAHashSlots table = m_table;
+        DSAHashSlots oldTable = m_oldTable;
+        return table.size + ((oldTable == null) ? 0 : oldTable.size);
+    }
+
+    public int getCapacity()
+    {
+        return m_table.capacity;
+    }
+
+    /* Function: stats
+     * Import: None
+     * Export: DSAHashTableStats stats
+     * Returns a snapshot of the table's size, load and tombstones, and of
+     * the METRICS counts if they are kept.
+     *
+     * The JMX bean calls this from another thread without locking. Each
+     * table is read into a local once, so a migration finishing part way
+     * through can't break it, but nothing is volatile so the counts are only
+     * a best effort snapshot of a table that is being changed.
+     */
+    public DSAHashTableStats stats()
+    {
+        DSAHashMetrics m = (metrics != null) ? metrics : new DSAHashMetrics();
+        DSAHashSlots table = m_table;
+        DSAHashSlots oldTable = m_oldTable;
+        int size = table.size + ((oldTable == null) ? 0 : oldTable.size);
+        int tombstones = table.freed + ((oldTable == null) ? 0 : oldTable.freed);
+        return new DSAHashTableStats(size, table.capacity, tombstones, metrics != null, m.lookupProbes,
+            m.insertProbes, m.hashCollisions, m.resizes, m.resizeNanos, m.rehashes);
+    }
+
+    /* Function: diagnose
+     * Import: None
+     * Export: DSAHashTableDiagnostics diagnostics
+     *
+     * Measures clustering and probe lengths over every slot of m_table.
+     * Entries still waiting to be moved out of an old table aren't included.
+     * Each entry's chain is found by replaying its probe sequence from its
+     * cached hash, so this takes about as long as looking every key up.
+     */
+    public DSAHashTableDiagnostics diagnose()
+    {
+        DSAHashSlots table = m_table;
+        int clusters = 0;
+        int longestCluster = 0;
+        long clusterSlots = 0;
+        int run = 0;
+        int longestChain = 0;
+        long chainTotal = 0;
+        int[] homes = new int[table.size];
+        long[] sequences = new long[table.size];
+        int count = 0;
+        for(int i = 0; i <= table.capacity; i++)
+        {
+            //One past the end closes a run that reaches the last slot
+            if(i < table.capacity && table.state[i] != EMPTY)
+            {
+                run++;
+            }
+            else if(run > 0)
+            {
+                clusters++;
+                clusterSlots += run;
+                longestCluster = Math.max(longestCluster, run);
+                run = 0;
+            }
+            if(i < table.capacity && table.state[i] == FULL)
+            {
+                int h = table.hashes[i];
+                int home = table.home(h);
+                int step = table.step(h);
+                int index = home;
+                int chain = 1;
+                while(index != i && chain < table.capacity)
+                {
+                    index = table.next(index, step);
+                    chain++;
+                }
+                longestChain = Math.max(longestChain, chain);
+                chainTotal += chain;
+                homes[count] = home;
+                sequences[count] = (long)home * table.capacity + step;
+                count++;
+            }
+        }
+        return new DSAHashTableDiagnostics(count, table.capacity, clusters, longestCluster, clusterSlots,
+            longestChain, chainTotal, repeats(homes), repeats(sequences), table.seed != 0);
+    }
+
+    /* Function: checkSlots
+     * Import: None
+     * Export: None
+     *
+     * Consistency check used by DSAHashTableCheck. Throws IllegalStateException
+     * unless, in both tables, the FULL and FREED counts match the slot
+     * states, every cached hash is the key's hash under that table's seed,
+     * and find gets to every entry from its hash, so no probe sequence is
+     * broken. A Robin Hood m_table must also hold no FREED slots. Walks
+     * every slot, and nothing it does counts towards METRICS.
+     */
+    void checkSlots()
+    {
+        DSAHashMetrics saved = metrics;
+        metrics = null;
+        try
+        {
+            checkSlots(m_table, "table");
+            if(m_oldTable != null)
+            {
+                checkSlots(m_oldTable, "old table");
+            }
+        }
+        finally
+        {
+            metrics = saved;
+        }
+    }
 
-        public DSAHashEntry() 
+    private void checkSlots(DSAHashSlots slots, String name)
+    {
+        int full = 0;
+        int freed = 0;
+        for(int i = 0; i < slots.capacity; i++)
+        {
+            if(slots.state[i] == FULL)
+            {
+                full++;
+                if(slots.hashes[i] != hash(slots.keys[i], slots.seed))
+                {
+                    throw new IllegalStateException(String.format("Cached hash of %s at %d in the %s is wrong.", slots.keys[i], i, name));
+                }
+                if(slots.find(slots.keys[i], slots.hashes[i]) != i)
+                {
+                    throw new IllegalStateException(String.format("%s at %d in the %s can't be found.", slots.keys[i], i, name));
+                }
+            }
+            else if(slots.state[i] == FREED)
+            {
+                freed++;
+            }
+        }
+        if(full != slots.size || freed != slots.freed)
+        {
+            throw new IllegalStateException(String.format("The %s counts %d full and %d freed slots but holds %d and %d.",
+                name, slots.size, slots.freed, full, freed));
+        }
+        if(slots.robinHood && slots == m_table && freed > 0)
         {
-            init();
+            throw new IllegalStateException("Robin Hood table has FREED slots.");
         }
+    }
 
-        public void init()
+    //Number of elements equal to the one before them once sorted
+    private static int repeats(int[] values)
+    {
+        Arrays.sort(values);
+        int repeats = 0;
+        for(int i = 1; i < values.length; i++)
         {
-            empty = true;
-            used = false;
-            key = "";
-            value = null;
+            if(values[i] == values[i - 1])
+            {
+                repeats++;
+            }
         }
+        return repeats;
     }
-    /*END INNER CLASS*/
-    
-    private DSAHashEntry[] m_hashTable;
-    private int capacity;
-    private int size;
-    private int maxStep;   
- 
-    @SuppressWarnings("unchecked")
-    public DSAHashTable(int maxSize)
+
+    private static int repeats(long[] values)
     {
-        if(maxSize < 1)
+        Arrays.sort(values);
+        int repeats = 0;
+        for(int i = 1; i < values.length; i++)
         {
-            throw new IllegalArgumentException("Max size must be positive.");
+            if(values[i] == values[i - 1])
+            {
+                repeats++;
+            }
         }
-        //Returns the next lowest prime greater than max size unless maxSize is prime
-        capacity = nextPrime(maxSize);
-        size = 0;
-        //Type erasure was a bad idea
-        m_hashTable = (DSAHashEntry[])Array.newInstance(DSAHashEntry.class, capacity);
-        //Initialize m_hashTable with default entries
-        for(int i = 0; i < capacity; i++)
+        return repeats;
+    }
+
+    /* Function: register
+     * Import: String name
+     * Export: None
+     * Registers a DSAHashTableMXBean for this table with the platform MBean
+     * server as DSAHashTable:name=<name>, replacing any earlier registration
+     * of this table.
+     */
+    public void register(String name) throws JMException
+    {
+        unregister();
+        ObjectName objectName = new ObjectName("DSAHashTable", "name", ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(new DSAHashTableBean(), DSAHashTableMXBean.class, true), objectName);
+        mbeanName = objectName;
+    }
+
+    //Undoes register. Does nothing if the table isn't registered.
+    public void unregister() throws JMException
+    {
+        if(mbeanName != null)
         {
-            m_hashTable[i] = new DSAHashEntry();
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+            mbeanName = null;
         }
+    }
 
-        setMaxStep();
+    public long getHits()
+    {
+        return hits;
     }
-    
-    //Calculate max step for double hashing
-    private void setMaxStep()
+
+    public long getMisses()
     {
-        maxStep = nextPrime(capacity / 2);
+        return misses;
     }
-    
-    public int getSize()
+
+    public long getEvictions()
     {
-        return size;
+        return evictions;
     }
 
-    public int getCapacity()
+    //True if either cache feature is on, so lookups need to do bookkeeping
+    private boolean isCache()
     {
-        return capacity;
+        return maxEntries > 0 || ttl > 0;
+    }
+
+    //Expiry time for an entry put now
+    private long expiryFromNow()
+    {
+        return (ttl > 0) ? System.nanoTime() + ttl : 0;
     }
 
     private double calcLoad()
     {
-        return (double)size / (double)capacity;
+        return (double)getSize() / (double)m_table.capacity;
     }
 
     /* Function resize
-     * Import: None
+     * Import: int entries, boolean incremental, long seed
      * Export: None
-     * Called when load exceeds min or max threshhold and resizes accordingly
+     * Called when load exceeds min or max threshhold and rebuilds the table
+     * with room for entries at the target load, hashing with seed. FREED
+     * slots aren't carried over. An incremental rebuild leaves the entries
+     * to be moved by migrate.
      */
-    private void resize()
+    private void resize(int entries, boolean incremental, long seed)
     { 
-        //Increase/decrease capacity in order to make load = 0.5
-        System.out.printf("Current load is %f. ", calcLoad());
-        int oldCapacity = capacity;
-        capacity = nextPrime((int)((double)size / 0.5));
-        System.out.printf("New capacity is %d\n", capacity);
-        setMaxStep();   //Calc new step from new capacity
-        size = 0;
-        DSAHashEntry[] oldTable = m_hashTable; 
-        m_hashTable = (DSAHashEntry[])Array.newInstance(DSAHashEntry.class, capacity);
-        for(int i = 0; i < capacity; i++)
+        //A resize can't start while the last one is still being moved
+        migrate(Integer.MAX_VALUE);
+        long startTime = (metrics != null) ? System.nanoTime() : 0;
+        DSAHashSlots oldTable = m_table;
+        m_table = new DSAHashSlots(roundCapacity(Math.max(minCapacity, (int)((double)entries / targetLoad))), seed);
+        clockHand = 0;
+        if(incremental)
+        {
+            m_oldTable = oldTable;
+            migrateIndex = 0;
+            oldClockHand = 0;
+        }
+        else
+        {
+            for(int j = 0; j < oldTable.capacity; j++)
+            {
+                if(oldTable.state[j] == FULL)
+                {
+                    //Insert all entries to the new table
+                    m_table.insert(oldTable.keys[j], oldTable.valueAt(j), movedHash(oldTable, j), oldTable.expiryAt(j),
+                        oldTable.refAt(j));
+                }
+            }
+        }
+        if(metrics != null)
+        {
+            metrics.resizes++;
+            metrics.resizeNanos += System.nanoTime() - startTime;
+        }
+    }
+
+    private int chainLimit()
+    {
+        return ((options & ROBIN_HOOD) != 0) ? ROBIN_HOOD_CHAIN_LIMIT : CHAIN_LIMIT;
+    }
+
+    //Rebuilds at the current seed, incrementally if the options say to
+    private void resize(int entries)
+    {
+        resize(entries, (options & INCREMENTAL_RESIZE) != 0, m_table.seed);
+    }
+
+    /* Function: rehash
+     * Import: int entries
+     * Export: None
+     * Starts moving every entry to a new table with room for entries,
+     * hashed with a new random seed.
+     */
+    private void rehash(int entries)
+    {
+        //Finish the last move first so it isn't done under the new seed
+        migrate(Integer.MAX_VALUE);
+        long seed = 0;
+        while(seed == 0)
+        {
+            seed = ThreadLocalRandom.current().nextLong();
+        }
+        resize(entries, true, seed);
+        if(metrics != null)
         {
-            m_hashTable[i] = new DSAHashEntry();    //Init new table
+            metrics.rehashes++;
         }
-        
-        for(int j = 0; j < oldCapacity; j++)
+    }
+
+    /* Function: migrate
+     * Import: int slots
+     * Export: None
+     * Moves entries from up to slots more old table slots into the new table.
+     */
+    private void migrate(int slots)
+    {
+        if(m_oldTable != null)
         {
-            if(!oldTable[j].empty)
+            long startTime = (metrics != null) ? System.nanoTime() : 0;
+            int end = migrateIndex + Math.min(slots, m_oldTable.capacity - migrateIndex);
+            for(; migrateIndex < end; migrateIndex++)
+            {
+                if(m_oldTable.state[migrateIndex] == FULL)
+                {
+                    m_table.insert(m_oldTable.keys[migrateIndex], m_oldTable.valueAt(migrateIndex),
+                        movedHash(m_oldTable, migrateIndex), m_oldTable.expiryAt(migrateIndex), m_oldTable.refAt(migrateIndex));
+                    m_oldTable.free(migrateIndex);
+                }
+            }
+            if(migrateIndex == m_oldTable.capacity)
             {
-                put(oldTable[j].key, oldTable[j].value);    //Insert all entries to the new table
+                m_oldTable = null;
+            }
+            if(metrics != null)
+            {
+                metrics.resizeNanos += System.nanoTime() - startTime;
             }
         }
-        System.out.printf("Resize called. new capacity: %d\n", capacity);
-        
     }
     
+    /* Function: roundCapacity
+     * Import: int start
+     * Export: int capacity
+     * Returns the smallest usable capacity >= start, a prime or a power of two
+     * depending on the options.
+     */
+    private int roundCapacity(int start)
+    {
+        int capacity;
+        if((options & POWER_OF_TWO) != 0)
+        {
+            capacity = (start <= 1) ? 1 : Integer.highestOneBit(start - 1) << 1;
+        }
+        else
+        {
+            capacity = nextPrime(start);
+        }
+        return capacity;
+    }
+
     /* Function nextPrime
      * Import: int start
      * Export: int prime
@@ -151,121 +1138,153 @@ public class DSAHashTable<T>
         return isPrime;
     }
 
+    //Hash of key for m_table
+    private int hash(String key)
+    {
+        return hash(key, m_table.seed);
+    }
+
     /* Function: hash
-     * Import: String key.
+     * Import: String key, long seed.
      * Export int hashIdx.
-     * Generates a unique integer index from passed key.
+     * Generates a non negative hash from passed key. Both the home slot and
+     * probe step are taken from this.
+     *
+     * With seed 0 it starts from String.hashCode(), which the String caches
+     * after the first call, and runs it through the murmur3 finalizer so
+     * every output bit depends on every input bit. That can't help keys with
+     * equal String.hashCode() values though, and those are easy to make. So
+     * any other seed mixes the characters in one at a time starting from the
+     * seed, which gives colliding keys no way to stay colliding under a seed
+     * they don't know.
      */
-    private int hash(String key)
+    private int hash(String key, long seed)
     {
-        int a = 63689;  //Weird numbers
-        int b = 378551;
-        int hashIdx = 0;
-
-        for(int i = 0; i < key.length(); i++)
+        int hashIdx;
+        if(seed == 0)
+        {
+            hashIdx = key.hashCode();
+            hashIdx ^= hashIdx >>> 16;
+            hashIdx *= 0x85EBCA6B;
+            hashIdx ^= hashIdx >>> 13;
+            hashIdx *= 0xC2B2AE35;
+            hashIdx ^= hashIdx >>> 16;
+        }
+        else
         {
-            hashIdx = (hashIdx * a) + key.charAt(i);
-            a *= b;
+            long x = seed;
+            for(int i = 0; i < key.length(); i++)
+            {
+                x = Long.rotateLeft((x ^ key.charAt(i)) * 0x9E3779B97F4A7C15L, 29);
+            }
+            x ^= key.length();
+            x ^= x >>> 33;
+            x *= 0xFF51AFD7ED558CCDL;
+            x ^= x >>> 33;
+            x *= 0xC4CEB9FE1A85EC53L;
+            x ^= x >>> 33;
+            hashIdx = (int)x;
         }
+        return hashIdx & Integer.MAX_VALUE;
+    }
 
-        hashIdx = hashIdx < 0 ? Integer.MAX_VALUE + hashIdx : hashIdx; //Apparently java has no unsigned int
-        return hashIdx % capacity;
+    //Hash of key for m_oldTable given its hash h for m_table. They only
+    //differ while a rehash to a new seed is being moved.
+    private int oldHash(String key, int h)
+    {
+        return (m_oldTable.seed == m_table.seed) ? h : hash(key, m_oldTable.seed);
     }
 
-    /* Function: probeHash
-     * Import: String key
-     * Export: int hashIdx
-     * Generates a second index for double hashing
-     */
-    private int probeHash(String key)
+    //Hash for moving slot index of from into m_table
+    private int movedHash(DSAHashSlots from, int index)
     {
-        int hashIdx = key.charAt(0);
-        for(int i = 1; i < key.length(); i++)
-        {
-            hashIdx = (31 * hashIdx) + key.charAt(i);
-        }
-        //I'm incredibly smart.
-        return hashIdx = (hashIdx = (hashIdx < 0) ? (Integer.MAX_VALUE + hashIdx) % maxStep : hashIdx % maxStep) == 0 ? 1 : hashIdx;
+        return (from.seed == m_table.seed) ? from.hashes[index] : hash(from.keys[index], m_table.seed);
     }
 
     /* Function: put
      * Import: String key, T value
      * Export: None
-     * Inserts the value and key into the hashtable 
+     * Inserts the value and key into the hashtable, replacing the value if
+     * key is already present. The key is looked up once and, if it's new,
+     * goes in the first FREED slot on the way or else the EMPTY slot that
+     * ended the search.
      */
     public void put(String key, T value)
     {
-        if(calcLoad() >= 0.6)
-        {
-            resize();
-        }
-        int index = hash(key);
-        //System.out.printf("%s has index %d\n", key, index);
-        int step = probeHash(key);
-        if(m_hashTable[index].empty)
+        migrate(MIGRATE_STEP);
+        int h = hash(key);
+        int index = m_table.findForInsert(key, h);
+        if(index >= 0)
         {
-            m_hashTable[index].key = key;
-            m_hashTable[index].value = value;
-            m_hashTable[index].empty = false;
-            m_hashTable[index].used = true;
-            size++;
+            m_table.setValue(index, value);
+            m_table.setExpiry(index, expiryFromNow());
         }
         else
         {
-            insertLinearProbing(index, key, value, step);
+            if(m_oldTable != null)
+            {
+                //Don't leave an older copy behind to be moved across later
+                int old = m_oldTable.find(key, oldHash(key, h));
+                if(old >= 0)
+                {
+                    m_oldTable.free(old);
+                }
+            }
+            //Evicting or resizing moves slots about so the key's slot has to be found again
+            boolean moved = false;
+            if(maxEntries > 0 && getSize() >= maxEntries)
+            {
+                evict();
+                moved = true;
+            }
+            if((double)(getSize() + m_table.freed + 1) / (double)m_table.capacity >= maxLoad)
+            {
+                resize(getSize() + 1);
+                moved = true;
+            }
+            else if((options & HASH_FLOOD_GUARD) != 0 && m_table.lastProbes > chainLimit() && m_oldTable == null)
+            {
+                rehash(getSize());
+                h = hash(key);
+                moved = true;
+            }
+            if(moved)
+            {
+                m_table.insert(key, value, h, expiryFromNow(), (byte)0);
+            }
+            else
+            {
+                m_table.insertAt(-index - 1, key, value, h, expiryFromNow(), (byte)0);
+            }
         }
     }
-
-    //Probing for insert
-    private void insertLinearProbing(int index, String key, T value, int step)
-    {
-        do 
-        {
-            index = (index + step) % capacity;
-        }while(!m_hashTable[index].empty);
-
-        m_hashTable[index].key = key;
-        m_hashTable[index].value = value;
-        m_hashTable[index].empty = false;
-        m_hashTable[index].used = true;
-        size++;
-    }
     
     /* Function: get
      * Import: String key
      * Export: T value
      * Returns value at index of key if there is a match. Throws exception otherwise
      */
+    @SuppressWarnings("unchecked")
     public T get(String key)
     {
-        T value = null;
-        int index = hash(key);
-        int step = probeHash(key);
-        if(m_hashTable[index].key.equals(key))
+        Object value = lookup(key, hash(key), true);
+        if(value == MISSING)
         {
-            value = m_hashTable[index].value;
+            throw new NoSuchElementException(String.format("No element with key %s exists in the map.\n", key));
         }
-        else
-        {
-            value = findLinearProbing(index, key, step);        
-        }
-        
-        return value;
+        return (T)value;
     }
     
-    //Linear probing for get
-    private T findLinearProbing(int index, String key, int step)
+    /* Function: getOrDefault
+     * Import: String key, T fallback
+     * Export: T value
+     * Returns value stored under key, or fallback if there isn't one.
+     */
+    @SuppressWarnings("unchecked")
+    public T getOrDefault(String key, T fallback)
     {
-        do 
-        {
-            if(!m_hashTable[index].used)
-            {
-                throw new NoSuchElementException(String.format("No element with key %s exists in the map.\n", key));
-            }            
-            index = (index + step) % capacity;
-        }while(!m_hashTable[index].key.equals(key));
-
-        return m_hashTable[index].value;
+        Object value = lookup(key, hash(key), true);
+        return (value == MISSING) ? fallback : (T)value;
     }
     
     /* Function: remove
@@ -275,41 +1294,37 @@ public class DSAHashTable<T>
      */
     public void remove(String key)
     {
-        if(calcLoad() <= 0.4)
-        {
-            resize();
-        }
-        int index = hash(key);
-        int step = probeHash(key);
-        if(m_hashTable[index].key.equals(key))
+        if(!removeKey(key))
         {
-            m_hashTable[index].key = "";
-            m_hashTable[index].value = null;
-            m_hashTable[index].empty = true;
-            size--;
-        }
-        else
-        {
-            removeLinearProbing(index, key, step);
+            throw new NoSuchElementException(String.format("No element with key %s exists in the map.\n", key));
         }
     }
-    
-    //Linear probing for remove
-    private void removeLinearProbing(int index, String key, int step)
+
+    /* Function: removeKey
+     * Import: String key
+     * Export: boolean removed
+     * Removes key and its value if present. Returns false if it wasn't.
+     */
+    public boolean removeKey(String key)
     {
-        do
+        migrate(MIGRATE_STEP);
+        int h = hash(key);
+        DSAHashSlots slots = m_table;
+        int index = m_table.find(key, h);
+        if(index < 0 && m_oldTable != null)
         {
-            if(!m_hashTable[index].used)
+            slots = m_oldTable;
+            index = m_oldTable.find(key, oldHash(key, h));
+        }
+        if(index >= 0)
+        {
+            removeAt(slots, index);
+            if(calcLoad() <= MIN_LOAD && m_table.capacity > minCapacity)
             {
-                throw new NoSuchElementException(String.format("No element with key %s exists in the map.\n", key));
+                resize(getSize());
             }
-            index = (index + step) % capacity;
-        }while(!m_hashTable[index].key.equals(key));
-
-        m_hashTable[index].key = "";
-        m_hashTable[index].value = null;
-        m_hashTable[index].empty = true;
-        size--;
+        }
+        return index >= 0;
     }
     
     /* Function: containsKey
@@ -319,41 +1334,306 @@ public class DSAHashTable<T>
      */
     public boolean containsKey(String key)
     {
-        int index = hash(key);
-        int step = probeHash(key);
-        boolean present = false;
-        if(m_hashTable[index].used)
+        return lookup(key, hash(key), false) != MISSING;
+    }
+
+    /* Function: lookup
+     * Import: String key, int h, boolean touch
+     * Export: Object value
+     *
+     * Returns the value stored under key, or MISSING. Checks the old table
+     * too while a migration is running. In cache mode an expired entry is
+     * removed and counts as missing, and if touch is set the entry's
+     * reference bit is set and the lookup is counted as a hit or miss.
+     * Outside cache mode this doesn't write anything.
+     */
+    private Object lookup(String key, int h, boolean touch)
+    {
+        DSAHashSlots slots = m_table;
+        int index = m_table.find(key, h);
+        if(index < 0 && m_oldTable != null)
         {
-            if(m_hashTable[index].key.equals(key))
+            slots = m_oldTable;
+            index = m_oldTable.find(key, oldHash(key, h));
+        }
+        Object value = MISSING;
+        if(index >= 0)
+        {
+            value = slots.valueAt(index);
+            if(slots.expired(index, System.nanoTime()))
+            {
+                removeAt(slots, index);
+                value = MISSING;
+            }
+            else if(touch)
+            {
+                slots.setRef(index, (byte)1);
+            }
+        }
+        if(touch && isCache())
+        {
+            if(value == MISSING)
             {
-                present = true;
-            }   
+                misses++;
+            }
             else
             {
-                present = containsLinearProbing(index, key, step);
+                hits++;
             }
         }
-        return present;
-    } 
+        return value;
+    }
+
+    //Removes the entry at index of either table
+    private void removeAt(DSAHashSlots slots, int index)
+    {
+        if(slots == m_table)
+        {
+            m_table.delete(index);
+        }
+        else
+        {
+            //Old table entries are only ever moved out, so just leave a FREED slot
+            m_oldTable.free(index);
+        }
+    }
+
+    /* Function: evict
+     * Import: None
+     * Export: None
+     *
+     * Evicts one entry to make room in cache mode. The CLOCK hand sweeps
+     * m_table from where it last stopped. An expired entry is evicted
+     * straight away, a referenced one has its bit cleared and is passed over,
+     * and the first unreferenced one is evicted. Every entry is passed at
+     * most once before one is found with its bit clear, so this ends within
+     * two sweeps.
+     *
+     * While a migration is running the old table entries still to be moved
+     * are swept the same way first, with their own hand, so a hot entry
+     * waiting to move isn't evicted ahead of cold ones. A lap of the old
+     * table that evicts nothing carries on into m_table, or back round the
+     * old table if m_table is empty.
+     */
+    private void evict()
+    {
+        long now = System.nanoTime();
+        boolean evicted = (m_oldTable != null) && sweepOld(now);
+        while(!evicted && m_table.size == 0 && m_oldTable != null && m_oldTable.size > 0)
+        {
+            evicted = sweepOld(now);
+        }
+        while(!evicted && m_table.size > 0)
+        {
+            int hand = clockHand;
+            clockHand = m_table.next(clockHand, 1);
+            if(m_table.state[hand] == FULL)
+            {
+                if(m_table.referenced[hand] == 0 || m_table.expired(hand, now))
+                {
+                    m_table.delete(hand);
+                    evicted = true;
+                }
+                else
+                {
+                    m_table.referenced[hand] = 0;
+                }
+            }
+        }
+        evictions++;
+    }
 
-    //Linear probing for containsKey
-    private boolean containsLinearProbing(int index, String key, int step)
+    /* Function: sweepOld
+     * Import: long now
+     * Export: boolean evicted
+     * Moves the old table's hand towards its end, clearing reference bits,
+     * until it evicts an entry. Returns false, with the hand back at
+     * migrateIndex, if it reaches the end first.
+     */
+    private boolean sweepOld(long now)
+    {
+        boolean evicted = false;
+        int hand = Math.max(oldClockHand, migrateIndex);
+        while(hand < m_oldTable.capacity && !evicted)
+        {
+            if(m_oldTable.state[hand] == FULL)
+            {
+                if(m_oldTable.refAt(hand) == 0 || m_oldTable.expired(hand, now))
+                {
+                    m_oldTable.free(hand);
+                    evicted = true;
+                }
+                else
+                {
+                    m_oldTable.setRef(hand, (byte)0);
+                }
+            }
+            hand++;
+        }
+        oldClockHand = (hand < m_oldTable.capacity) ? hand : migrateIndex;
+        return evicted;
+    }
+
+    /* Function: putAll
+     * Import: String[] keys, T[] values
+     * Export: None
+     *
+     * Puts keys[i] -> values[i] for every i. The table is grown once up
+     * front with room for all the keys, assuming none are present yet, so
+     * the inserts themselves don't check the load or resize. Any incremental
+     * resize is finished first so each key only has to be looked for once.
+     * A size limited cache may have to evict on any insert, so one just
+     * calls put for each key. values can be null to put null for every key.
+     * HASH_FLOOD_GUARD is checked after each new key as in put, and a rehash
+     * keeps room for the keys still to come.
+     */
+    public void putAll(String[] keys, T[] values)
+    {
+        if(values != null && keys.length != values.length)
+        {
+            throw new IllegalArgumentException("Keys and values must be the same length.");
+        }
+        if(maxEntries > 0)
+        {
+            for(int i = 0; i < keys.length; i++)
+            {
+                put(keys[i], (values == null) ? null : values[i]);
+            }
+        }
+        else
+        {
+            migrate(Integer.MAX_VALUE);
+            int entries = getSize() + keys.length;
+            if((double)(entries + m_table.freed) / (double)m_table.capacity >= maxLoad)
+            {
+                resize(entries);
+                migrate(Integer.MAX_VALUE);
+            }
+            long expiry = expiryFromNow();
+            for(int i = 0; i < keys.length; i++)
+            {
+                int h = hash(keys[i]);
+                int index = m_table.findForInsert(keys[i], h);
+                T value = (values == null) ? null : values[i];
+                if(index >= 0)
+                {
+                    m_table.setValue(index, value);
+                    m_table.setExpiry(index, expiry);
+                }
+                else
+                {
+                    m_table.insertAt(-index - 1, keys[i], value, h, expiry, (byte)0);
+                    if((options & HASH_FLOOD_GUARD) != 0 && m_table.lastProbes > chainLimit())
+                    {
+                        rehash(getSize() + keys.length - i - 1);
+                        migrate(Integer.MAX_VALUE);
+                    }
+                }
+            }
+        }
+    }
+
+    /* Function: getAll
+     * Import: String[] keys, T[] out
+     * Export: None
+     *
+     * Stores the value of keys[i] in out[i] for every i. Throws exception if
+     * any key isn't present, after filling in the keys before it. Keys are
+     * done BATCH at a time, hashing the whole batch before probing for any of
+     * it, so the probes' cache misses aren't held up behind the hashing and
+     * can overlap each other.
+     */
+    @SuppressWarnings("unchecked")
+    public void getAll(String[] keys, T[] out)
+    {
+        if(out.length < keys.length)
+        {
+            throw new IllegalArgumentException("Output array is shorter than keys.");
+        }
+        int[] h = new int[Math.min(BATCH, keys.length)];
+        for(int start = 0; start < keys.length; start += BATCH)
+        {
+            int end = Math.min(keys.length, start + BATCH);
+            for(int i = start; i < end; i++)
+            {
+                h[i - start] = hash(keys[i]);
+            }
+            for(int i = start; i < end; i++)
+            {
+                Object value = lookup(keys[i], h[i - start], true);
+                if(value == MISSING)
+                {
+                    throw new NoSuchElementException(String.format("No element with key %s exists in the map.\n", keys[i]));
+                }
+                out[i] = (T)value;
+            }
+        }
+    }
+
+    /* Function: containsAll
+     * Import: String[] keys
+     * Export: boolean present
+     * Returns true if every key exists in table. Batched like getAll.
+     */
+    public boolean containsAll(String[] keys)
     {
-        boolean present = false, loopVar = true;
-        
-        do
+        int[] h = new int[Math.min(BATCH, keys.length)];
+        boolean present = true;
+        for(int start = 0; start < keys.length && present; start += BATCH)
         {
-            if(!m_hashTable[index].used)
+            int end = Math.min(keys.length, start + BATCH);
+            for(int i = start; i < end; i++)
             {
-                loopVar = false;
+                h[i - start] = hash(keys[i]);
             }
-            else if(m_hashTable[index].key.equals(key))
+            for(int i = start; i < end && present; i++)
             {
-                loopVar = false;
-                present = true;
+                present = lookup(keys[i], h[i - start], false) != MISSING;
             }
-            index = (index + step) % capacity;
-        }while(loopVar);
+        }
         return present;
     }
+
+    /* Function: iterator
+     * Import: None
+     * Export: Iterator<Map.Entry<String, T>> iter
+     * Iterates over the entries in slot order, skipping unused slots. The
+     * table must not be changed while iterating.
+     */
+    public Iterator<Map.Entry<String, T>> iterator()
+    {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /* Function: spliterator
+     * Import: None
+     * Export: Spliterator<Map.Entry<String, T>> split
+     * Splittable spliterator over the entries, for parallel streams.
+     */
+    @SuppressWarnings("unchecked")
+    public Spliterator<Map.Entry<String, T>> spliterator()
+    {
+        return new DSASlotSpliterator<Map.Entry<String, T>>(
+            (key, value) -> new AbstractMap.SimpleImmutableEntry<String, T>(key, (T)value),
+            Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    //Stream of the entries, parallel if asked
+    public Stream<Map.Entry<String, T>> stream(boolean parallel)
+    {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
+    //View of the keys. Iterating it has the same rules as iterating the table.
+    public Iterable<String> keys()
+    {
+        return new DSASlotView<String>((key, value) -> key, Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    //View of the values. Iterating it has the same rules as iterating the table.
+    @SuppressWarnings("unchecked")
+    public Iterable<T> values()
+    {
+        return new DSASlotView<T>((key, value) -> (T)value, 0);
+    }
 }
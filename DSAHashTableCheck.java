@@ -0,0 +1,335 @@
+/* *
+ * Luke McDougall
+ *
+ * Equivalence check for DSAHashTable. For every combination of options it
+ * runs random puts, gets, removes and bulk operations against a
+ * java.util.HashMap doing the same thing, and stops with an exception at
+ * the first difference. The table's own slot invariants (see checkSlots)
+ * are checked as it goes, so a broken Robin Hood shift or migration shows
+ * up where it happens rather than as a lookup miss later.
+ *
+ * The key set grows and shrinks between phases so tables grow, shrink and
+ * migrate, and includes "Aa"/"BB" strings that share a String.hashCode so
+ * HASH_FLOOD_GUARD has something to react to. Size limited caches are
+ * checked too, against the values last put rather than exact contents, as
+ * are caches with a time to live: the check waits for entries to expire
+ * and then looks them up while new puts are resizing the table.
+ *
+ * Usage: java DSAHashTableCheck [ops] [seed]
+ *
+ * Last updated 18/10/2026
+ * */
+import java.util.*;
+
+public class DSAHashTableCheck
+{
+    private static final int DEFAULT_OPS = 100000;   //Random operations per option set
+    private static final int PHASES = 8;             //Key set size changes per option set
+    private static final int CHECK_EVERY = 997;      //Operations between slot checks
+    private static final int BATCH = 24;             //Keys per putAll/getAll
+    private static final int COLLIDING_BITS = 9;     //2^bits colliding keys
+    private static final long TTL_MILLIS = 100;      //Time to live in the expiry check
+    private static final int TTL_ROUNDS = 3;         //Put, wait for expiry, check rounds
+    private static final int TTL_KEYS = 400;         //Keys put per round, several resizes from a small table
+    //Every combination of the public options
+    private static final int ALL_OPTIONS = DSAHashTable.INCREMENTAL_RESIZE | DSAHashTable.POWER_OF_TWO
+        | DSAHashTable.ROBIN_HOOD | DSAHashTable.METRICS | DSAHashTable.HASH_FLOOD_GUARD;
+
+    public static void main(String[] args)
+    {
+        int ops = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_OPS;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 1L;
+        String[] colliding = collidingKeys(COLLIDING_BITS);
+        for(int options = 0; options <= ALL_OPTIONS; options++)
+        {
+            checkTable(options, ops, new Random(seed + options), colliding);
+            checkCache(options, ops / 4, new Random(seed + options), colliding);
+            checkExpiry(options, 0, new Random(seed + options), colliding);
+            checkExpiry(options, TTL_KEYS / 2, new Random(seed + options), colliding);
+            System.out.println(String.format("options %2d ok", options));
+        }
+        System.out.println("All DSAHashTable checks passed.");
+    }
+
+    //Strings made of "Aa" and "BB" pairs, which all have the same String.hashCode
+    private static String[] collidingKeys(int bits)
+    {
+        String[] keys = new String[1 << bits];
+        for(int m = 0; m < keys.length; m++)
+        {
+            StringBuilder key = new StringBuilder();
+            for(int i = 0; i < bits; i++)
+            {
+                key.append(((m >> i) & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[m] = key.toString();
+        }
+        return keys;
+    }
+
+    //Key space for a phase, sometimes the colliding keys
+    private static String key(Random rand, int space, String[] colliding)
+    {
+        String key;
+        if(rand.nextInt(8) == 0)
+        {
+            key = colliding[rand.nextInt(colliding.length)];
+        }
+        else
+        {
+            key = "k" + rand.nextInt(space);
+        }
+        return key;
+    }
+
+    /* Function: checkTable
+     * Import: int options, int ops, Random rand, String[] colliding.
+     * Export: None.
+     * Runs ops random operations on a table and a HashMap, comparing every
+     * result and, at the end of each phase, the whole contents.
+     */
+    private static void checkTable(int options, int ops, Random rand, String[] colliding)
+    {
+        DSAHashTable<Integer> table = new DSAHashTable<Integer>(1 + rand.nextInt(16), options);
+        HashMap<String, Integer> map = new HashMap<String, Integer>();
+        String[] keys = new String[BATCH];
+        Integer[] values = new Integer[BATCH];
+        Integer[] out = new Integer[BATCH];
+        for(int phase = 0; phase < PHASES; phase++)
+        {
+            //Alternate between a big key set to grow into and a small one to shrink back to
+            int space = (phase % 2 == 0) ? 64 << rand.nextInt(8) : 1 + rand.nextInt(32);
+            for(int op = 0; op < ops / PHASES; op++)
+            {
+                int choice = rand.nextInt(100);
+                String key = key(rand, space, colliding);
+                if(choice < 40)
+                {
+                    int value = rand.nextInt();
+                    table.put(key, value);
+                    map.put(key, value);
+                }
+                else if(choice < 55)
+                {
+                    Integer expected = map.get(key);
+                    Integer actual = table.getOrDefault(key, null);
+                    expect(Objects.equals(expected, actual), options, "get " + key);
+                    expect(table.containsKey(key) == (expected != null), options, "containsKey " + key);
+                }
+                else if(choice < 70)
+                {
+                    expect(table.removeKey(key) == (map.remove(key) != null), options, "remove " + key);
+                }
+                else if(choice < 85 && space < 64)
+                {
+                    //Removing from the small phase's keys drains the table towards a shrink
+                    String old = "k" + rand.nextInt(64 << 7);
+                    expect(table.removeKey(old) == (map.remove(old) != null), options, "remove " + old);
+                }
+                else if(choice < 95)
+                {
+                    for(int i = 0; i < BATCH; i++)
+                    {
+                        keys[i] = key(rand, space, colliding);
+                        values[i] = rand.nextInt();
+                        map.put(keys[i], values[i]);
+                    }
+                    table.putAll(keys, values);
+                }
+                else
+                {
+                    int present = 0;
+                    for(int i = 0; i < BATCH; i++)
+                    {
+                        keys[i] = key(rand, space, colliding);
+                        present += map.containsKey(keys[i]) ? 1 : 0;
+                    }
+                    expect(table.containsAll(keys) == (present == BATCH), options, "containsAll");
+                    if(present == BATCH)
+                    {
+                        table.getAll(keys, out);
+                        for(int i = 0; i < BATCH; i++)
+                        {
+                            expect(map.get(keys[i]).equals(out[i]), options, "getAll " + keys[i]);
+                        }
+                    }
+                }
+                expect(table.getSize() == map.size(), options, "size " + table.getSize() + " vs " + map.size());
+                if(op % CHECK_EVERY == 0)
+                {
+                    table.checkSlots();
+                }
+            }
+            table.checkSlots();
+            compareContents(table, map, options);
+        }
+    }
+
+    //Every entry the table iterates over is in the map with the same value, and there are as many
+    private static void compareContents(DSAHashTable<Integer> table, HashMap<String, Integer> map, int options)
+    {
+        int count = 0;
+        for(Map.Entry<String, Integer> entry : table)
+        {
+            expect(entry.getValue().equals(map.get(entry.getKey())), options, "iterated " + entry.getKey());
+            count++;
+        }
+        expect(count == map.size(), options, "iterated " + count + " entries, expected " + map.size());
+        expect(table.stream(true).count() == map.size(), options, "parallel stream count");
+    }
+
+    /* Function: checkCache
+     * Import: int options, int ops, Random rand, String[] colliding.
+     * Export: None.
+     * A size limited cache can drop any key, so it is only checked to never
+     * go over its limit and to only ever hold the value last put for a key.
+     */
+    private static void checkCache(int options, int ops, Random rand, String[] colliding)
+    {
+        int maxEntries = 1 + rand.nextInt(300);
+        DSAHashTable<Integer> table = new DSAHashTable<Integer>(1 + rand.nextInt(16), options, maxEntries, 0);
+        HashMap<String, Integer> last = new HashMap<String, Integer>();
+        for(int op = 0; op < ops; op++)
+        {
+            String key = key(rand, 4 * maxEntries, colliding);
+            int choice = rand.nextInt(10);
+            if(choice < 4)
+            {
+                int value = rand.nextInt();
+                table.put(key, value);
+                last.put(key, value);
+            }
+            else if(choice < 8)
+            {
+                Integer actual = table.getOrDefault(key, null);
+                expect(actual == null || actual.equals(last.get(key)), options, "cache get " + key);
+            }
+            else
+            {
+                table.removeKey(key);
+                last.remove(key);
+            }
+            expect(table.getSize() <= maxEntries, options, "cache size " + table.getSize() + " over " + maxEntries);
+            if(op % CHECK_EVERY == 0)
+            {
+                table.checkSlots();
+            }
+        }
+        table.checkSlots();
+    }
+
+    /* Function: checkExpiry
+     * Import: int options, int maxEntries, Random rand, String[] colliding.
+     * Export: None.
+     *
+     * Each round waits until every entry has expired, re-puts some of the
+     * expired keys and puts new ones, and looks up the other expired keys
+     * between puts so they are dropped while the table is resizing. Expired
+     * keys must read as missing and never be iterated over, and no lookup
+     * may return anything but the value last put. If the round finished
+     * before its own puts could expire, and nothing was evicted, every live
+     * key must be found and getSize() must count exactly the live keys.
+     */
+    private static void checkExpiry(int options, int maxEntries, Random rand, String[] colliding)
+    {
+        DSAHashTable<Integer> table = new DSAHashTable<Integer>(1 + rand.nextInt(16), options, maxEntries, TTL_MILLIS);
+        HashMap<String, Integer> live = new HashMap<String, Integer>();
+        ArrayList<String> expired = new ArrayList<String>();
+        long ttl = TTL_MILLIS * 1000000L;
+        for(int round = 0; round < TTL_ROUNDS; round++)
+        {
+            sleepPast(ttl);
+            expired.addAll(live.keySet());
+            live.clear();
+            Collections.shuffle(expired, rand);
+            long start = System.nanoTime();
+            //Bring a quarter of the expired keys back with new values
+            for(int i = expired.size() / 4; i > 0; i--)
+            {
+                String key = expired.remove(expired.size() - 1);
+                int value = rand.nextInt();
+                table.put(key, value);
+                live.put(key, value);
+            }
+            //Iterating straight after the wait mustn't show any expired entry
+            for(Map.Entry<String, Integer> entry : table)
+            {
+                expect(entry.getValue().equals(live.get(entry.getKey())), options, "iterated expired " + entry.getKey());
+            }
+            for(int i = 0; i < TTL_KEYS; i++)
+            {
+                String key = (rand.nextInt(8) == 0) ? colliding[rand.nextInt(colliding.length)] : "r" + round + "k" + i;
+                if(!live.containsKey(key))
+                {
+                    expired.remove(key);
+                    int value = rand.nextInt();
+                    table.put(key, value);
+                    live.put(key, value);
+                }
+                //Drop an expired key between puts, mid migration when the table is growing
+                if(!expired.isEmpty() && rand.nextBoolean())
+                {
+                    String old = expired.remove(expired.size() - 1);
+                    expect(!table.containsKey(old) && table.getOrDefault(old, null) == null, options, "expired " + old);
+                }
+            }
+            for(String old : expired)
+            {
+                expect(table.getOrDefault(old, null) == null && !table.containsKey(old), options, "expired " + old);
+            }
+            expired.clear();
+            table.checkSlots();
+            int found = 0;
+            for(Map.Entry<String, Integer> entry : live.entrySet())
+            {
+                Integer actual = table.getOrDefault(entry.getKey(), null);
+                expect(actual == null || actual.equals(entry.getValue()), options, "stale value for " + entry.getKey());
+                found += (actual == null) ? 0 : 1;
+            }
+            int size = table.getSize();
+            int iterated = 0;
+            for(Map.Entry<String, Integer> entry : table)
+            {
+                expect(entry.getValue().equals(live.get(entry.getKey())), options, "iterated " + entry.getKey());
+                iterated++;
+            }
+            if(maxEntries == 0 && System.nanoTime() - start < ttl)
+            {
+                expect(found == live.size(), options, "found " + found + " of " + live.size() + " live keys");
+                expect(size == live.size() && iterated == live.size(), options, "expiring size " + size);
+            }
+            else if(maxEntries > 0)
+            {
+                expect(size <= maxEntries, options, "expiring cache size " + size + " over " + maxEntries);
+            }
+        }
+    }
+
+    //Waits until everything put so far is at least ttl nanoseconds old
+    private static void sleepPast(long ttl)
+    {
+        long end = System.nanoTime() + ttl;
+        long left = ttl;
+        while(left > 0)
+        {
+            try
+            {
+                Thread.sleep(left / 1000000L + 1);
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for entries to expire.", e);
+            }
+            left = end - System.nanoTime();
+        }
+    }
+
+    private static void expect(boolean condition, int options, String what)
+    {
+        if(!condition)
+        {
+            throw new IllegalStateException(String.format("Options %d: %s differs from HashMap.", options, what));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/* *
+ * Luke McDougall
+ *
+ * How well a DSAHashTable's keys are spread, measured over its live slots by
+ * DSAHashTable.diagnose(). Meant for checking hash quality on real keys, so
+ * unlike stats() it walks the whole table.
+ *
+ * A cluster is a run of neighbouring slots that aren't EMPTY. A probe that
+ * lands in one has to step through it, so long clusters mean long probes.
+ * An entry's chain is the number of slots a lookup for it looks at. Entries
+ * with the same home slot share a home, and entries with the same home slot
+ * and step share their whole probe sequence, so they collide at every step.
+ *
+ * Last updated 17/10/2026
+ * */
+public class DSAHashTableDiagnostics
+{
+    private int entries;
+    private int capacity;
+    private int clusters;
+    private int longestCluster;
+    private long clusterSlots;
+    private int longestChain;
+    private long chainTotal;
+    private int sharedHomes;
+    private int sharedSequences;
+    private boolean seeded;
+
+    public DSAHashTableDiagnostics(int entries, int capacity, int clusters, int longestCluster, long clusterSlots,
+        int longestChain, long chainTotal, int sharedHomes, int sharedSequences, boolean seeded)
+    {
+        this.entries = entries;
+        this.capacity = capacity;
+        this.clusters = clusters;
+        this.longestCluster = longestCluster;
+        this.clusterSlots = clusterSlots;
+        this.longestChain = longestChain;
+        this.chainTotal = chainTotal;
+        this.sharedHomes = sharedHomes;
+        this.sharedSequences = sharedSequences;
+        this.seeded = seeded;
+    }
+
+    public int getEntries()
+    {
+        return entries;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public int getClusters()
+    {
+        return clusters;
+    }
+
+    public int getLongestCluster()
+    {
+        return longestCluster;
+    }
+
+    public double getMeanCluster()
+    {
+        return (clusters == 0) ? 0.0 : (double)clusterSlots / (double)clusters;
+    }
+
+    public int getLongestChain()
+    {
+        return longestChain;
+    }
+
+    public double getMeanChain()
+    {
+        return (entries == 0) ? 0.0 : (double)chainTotal / (double)entries;
+    }
+
+    //Entries whose home slot is also the home slot of an entry counted before them
+    public int getSharedHomes()
+    {
+        return sharedHomes;
+    }
+
+    //Entries whose whole probe sequence is the same as an entry counted before them
+    public int getSharedSequences()
+    {
+        return sharedSequences;
+    }
+
+    //True once HASH_FLOOD_GUARD has switched the table to a seeded hash
+    public boolean isSeeded()
+    {
+        return seeded;
+    }
+
+    public String toString()
+    {
+        return String.format("entries %d, capacity %d, clusters %d (longest %d, mean %f), chains longest %d mean %f, "
+            + "shared homes %d, shared probe sequences %d%s", entries, capacity, clusters, longestCluster,
+            getMeanCluster(), longestChain, getMeanChain(), sharedHomes, sharedSequences, seeded ? ", seeded hash" : "");
+    }
+}
@@ -0,0 +1,26 @@
+/* *
+ * Luke McDougall
+ *
+ * JMX view of a DSAHashTable, registered with DSAHashTable.register(). Each
+ * attribute is read from a fresh DSAHashTable.stats() snapshot. The table
+ * isn't locked for this so values read while it's being changed are only
+ * approximate.
+ *
+ * Last updated 17/10/2026
+ * */
+public interface DSAHashTableMXBean
+{
+    int getSize();
+    int getCapacity();
+    double getLoad();
+    int getTombstones();
+    boolean isMetricsEnabled();
+    long[] getLookupProbes();
+    long[] getInsertProbes();
+    double getMeanLookupProbes();
+    double getMeanInsertProbes();
+    long getHashCollisions();
+    long getResizes();
+    long getResizeNanos();
+    long getRehashes();
+}
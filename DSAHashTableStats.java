@@ -0,0 +1,141 @@
+/* *
+ * Luke McDougall
+ *
+ * Snapshot of a DSAHashTable's shape and, if it was made with the METRICS
+ * option, what its operations have cost so far. Returned by
+ * DSAHashTable.stats(). The snapshot doesn't change as the table does.
+ *
+ * Probe histograms have one bucket per probe count: bucket i counts
+ * operations that looked at i + 1 slots, and the last bucket counts
+ * everything at or over its length.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+
+public class DSAHashTableStats
+{
+    private int size;
+    private int capacity;
+    private int tombstones;
+    private boolean metrics;
+    private long[] lookupProbes;
+    private long[] insertProbes;
+    private long hashCollisions;
+    private long resizes;
+    private long resizeNanos;
+    private long rehashes;
+
+    public DSAHashTableStats(int size, int capacity, int tombstones, boolean metrics, long[] lookupProbes,
+        long[] insertProbes, long hashCollisions, long resizes, long resizeNanos, long rehashes)
+    {
+        this.size = size;
+        this.capacity = capacity;
+        this.tombstones = tombstones;
+        this.metrics = metrics;
+        this.lookupProbes = lookupProbes.clone();
+        this.insertProbes = insertProbes.clone();
+        this.hashCollisions = hashCollisions;
+        this.resizes = resizes;
+        this.resizeNanos = resizeNanos;
+        this.rehashes = rehashes;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    //FREED slots, which probes still have to step over
+    public int getTombstones()
+    {
+        return tombstones;
+    }
+
+    public double getLoad()
+    {
+        return (double)size / (double)capacity;
+    }
+
+    //False if the table wasn't made with METRICS, in which case everything below is 0
+    public boolean hasMetrics()
+    {
+        return metrics;
+    }
+
+    //Slots looked at by get, containsKey and remove
+    public long[] getLookupProbes()
+    {
+        return lookupProbes.clone();
+    }
+
+    //Slots looked at by put finding where a key goes
+    public long[] getInsertProbes()
+    {
+        return insertProbes.clone();
+    }
+
+    public double getMeanLookupProbes()
+    {
+        return mean(lookupProbes);
+    }
+
+    public double getMeanInsertProbes()
+    {
+        return mean(insertProbes);
+    }
+
+    //Times a slot held a different key with the same full hash, so the strings had to be compared
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    public long getResizes()
+    {
+        return resizes;
+    }
+
+    //Time spent rebuilding, including moving entries during incremental resizes
+    public long getResizeNanos()
+    {
+        return resizeNanos;
+    }
+
+    //Times HASH_FLOOD_GUARD switched to a new hash seed, also counted in resizes
+    public long getRehashes()
+    {
+        return rehashes;
+    }
+
+    //Mean probes, counting the last bucket as its own length
+    private static double mean(long[] histogram)
+    {
+        long count = 0;
+        long total = 0;
+        for(int i = 0; i < histogram.length; i++)
+        {
+            count += histogram[i];
+            total += histogram[i] * (i + 1);
+        }
+        return (count == 0) ? 0.0 : (double)total / (double)count;
+    }
+
+    public String toString()
+    {
+        String str = String.format("size %d, capacity %d, load %f, tombstones %d", size, capacity, getLoad(), tombstones);
+        if(metrics)
+        {
+            str += String.format(", mean lookup probes %f, mean insert probes %f, hash collisions %d, resizes %d (%d ns), rehashes %d",
+                getMeanLookupProbes(), getMeanInsertProbes(), hashCollisions, resizes, resizeNanos, rehashes);
+            str += "\nlookup probes " + Arrays.toString(lookupProbes);
+            str += "\ninsert probes " + Arrays.toString(insertProbes);
+        }
+        return str;
+    }
+}
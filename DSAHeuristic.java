@@ -0,0 +1,14 @@
+/* *
+ * Luke McDougall
+ *
+ * Lower bound on the distance between two vertices, passed by label, for A*
+ * searches in DSAShortestPaths. It must never overestimate or the path found
+ * may not be the shortest. If it also never drops by more than an edge's
+ * weight across that edge (consistent) each vertex is expanded at most once.
+ *
+ * Last updated 17/10/2026
+ * */
+public interface DSAHeuristic
+{
+    double estimate(int label, int target);
+}
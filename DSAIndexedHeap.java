@@ -0,0 +1,235 @@
+/* *
+ * Luke McDougall
+ *
+ * Binary min heap of dense int ids 0..capacity-1 ordered by a double key,
+ * with decrease key. Made for Dijkstra style searches: the heap, each id's
+ * position in it and each id's key are plain arrays sized once, so insert,
+ * pop and decreaseKey allocate nothing and nothing is boxed.
+ *
+ * position[id] is where id sits in the heap array, or -1 if it isn't in the
+ * heap, so decreaseKey finds an id straight away before sifting it up.
+ * clear() only touches the ids still in the heap, so reusing a heap after a
+ * search that stopped early costs nothing for the ids it never reached.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+
+public class DSAIndexedHeap
+{
+    private static final int ABSENT = -1;
+
+    //class fields
+    private int[] heap;
+    private int[] position;
+    private double[] keys;
+    private int size;
+
+    public DSAIndexedHeap(int capacity)
+    {
+        if(capacity < 0)
+        {
+            throw new IllegalArgumentException("Error: Heap capacity can't be negative.");
+        }
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(position, ABSENT);
+        size = 0;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public int getCapacity()
+    {
+        return position.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public boolean contains(int id)
+    {
+        return position[id] != ABSENT;
+    }
+
+    /* Function: getKey
+     * Import: int id.
+     * Export: double key.
+     * Returns the key id is held under. Throws exception if id isn't in the heap.
+     */
+    public double getKey(int id)
+    {
+        if(!contains(id))
+        {
+            throw new NoSuchElementException(String.format("Error: Id %d is not in the heap.", id));
+        }
+        return keys[id];
+    }
+
+    /* Function: insert
+     * Import: int id, double key.
+     * Export: None.
+     * Adds id under key. Throws exception if id is already in the heap.
+     */
+    public void insert(int id, double key)
+    {
+        if(contains(id))
+        {
+            throw new IllegalArgumentException(String.format("Error: Id %d is already in the heap.", id));
+        }
+        keys[id] = key;
+        size++;
+        siftUp(size - 1, id);
+    }
+
+    /* Function: decreaseKey
+     * Import: int id, double key.
+     * Export: None.
+     * Lowers id's key. Throws exception if id isn't in the heap or key is
+     * higher than its current key.
+     */
+    public void decreaseKey(int id, double key)
+    {
+        if(key > getKey(id))
+        {
+            throw new IllegalArgumentException(String.format("Error: %f is higher than the key of id %d.", key, id));
+        }
+        keys[id] = key;
+        siftUp(position[id], id);
+    }
+
+    /* Function: offer
+     * Import: int id, double key.
+     * Export: boolean changed.
+     *
+     * Inserts id if it isn't in the heap, or lowers its key if key is lower.
+     * Returns false if id was already there with a key no higher than key.
+     */
+    public boolean offer(int id, double key)
+    {
+        boolean changed = true;
+        if(!contains(id))
+        {
+            insert(id, key);
+        }
+        else if(key < keys[id])
+        {
+            keys[id] = key;
+            siftUp(position[id], id);
+        }
+        else
+        {
+            changed = false;
+        }
+        return changed;
+    }
+
+    /* Function: peek
+     * Import: None.
+     * Export: int id.
+     * Returns the id with the lowest key without removing it.
+     */
+    public int peek()
+    {
+        if(isEmpty())
+        {
+            throw new NoSuchElementException("Error: Heap is empty.");
+        }
+        return heap[0];
+    }
+
+    /* Function: pop
+     * Import: None.
+     * Export: int id.
+     * Removes and returns the id with the lowest key. getKey only works for
+     * ids in the heap, so read the key first if it is needed.
+     */
+    public int pop()
+    {
+        int top = peek();
+        position[top] = ABSENT;
+        size--;
+        if(size > 0)
+        {
+            siftDown(0, heap[size]);
+        }
+        return top;
+    }
+
+    //Empties the heap, only visiting the ids still in it
+    public void clear()
+    {
+        for(int i = 0; i < size; i++)
+        {
+            position[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    /* Function: siftUp
+     * Import: int index, int id.
+     * Export: None.
+     * Places id at index or above it, moving larger parents down into the hole.
+     */
+    private void siftUp(int index, int id)
+    {
+        double key = keys[id];
+        boolean placed = false;
+        while(index > 0 && !placed)
+        {
+            int parent = (index - 1) >>> 1;
+            int p = heap[parent];
+            if(keys[p] > key)
+            {
+                heap[index] = p;
+                position[p] = index;
+                index = parent;
+            }
+            else
+            {
+                placed = true;
+            }
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+
+    /* Function: siftDown
+     * Import: int index, int id.
+     * Export: None.
+     * Places id at index or below it, moving smaller children up into the hole.
+     */
+    private void siftDown(int index, int id)
+    {
+        double key = keys[id];
+        int child = 2 * index + 1;
+        boolean placed = false;
+        while(child < size && !placed)
+        {
+            if(child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+            {
+                child++;
+            }
+            int c = heap[child];
+            if(keys[c] < key)
+            {
+                heap[index] = c;
+                position[c] = index;
+                index = child;
+                child = 2 * index + 1;
+            }
+            else
+            {
+                placed = true;
+            }
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+}
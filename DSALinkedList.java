@@ -0,0 +1,197 @@
+/* *
+ * Luke McDougall
+ *
+ * Generic doubly linked list with head and tail references, the Java version
+ * of LinkedList in Collection.py. Used for DSAGraph's vertex and adjacency
+ * lists and underneath DSAQueue and DSAStack.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+
+public class DSALinkedList<E> implements Iterable<E>
+{
+    //INNER CLASS
+    private static class DSAListNode<E>
+    {
+        public DSAListNode<E> back;
+        public DSAListNode<E> front;
+        public E value;
+
+        public DSAListNode(E value)
+        {
+            back = null;
+            front = null;
+            this.value = value;
+        }
+    }
+    //END INNER CLASS
+
+    //INNER CLASS
+    private class DSAListIterator implements Iterator<E>
+    {
+        private DSAListNode<E> cur;
+
+        public DSAListIterator()
+        {
+            cur = head;
+        }
+
+        public boolean hasNext()
+        {
+            return cur != null;
+        }
+
+        public E next()
+        {
+            if(cur == null)
+            {
+                throw new NoSuchElementException();
+            }
+            E value = cur.value;
+            cur = cur.front;
+            return value;
+        }
+    }
+    //END INNER CLASS
+
+    //class fields
+    private DSAListNode<E> head;
+    private DSAListNode<E> tail;
+    private int size;
+
+    public DSALinkedList()
+    {
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /* Function: insertFirst
+     * Import: E value.
+     * Export: None.
+     * Adds value to the front of the list.
+     */
+    public void insertFirst(E value)
+    {
+        DSAListNode<E> newNode = new DSAListNode<E>(value);
+        if(head == null)
+        {
+            tail = newNode;
+        }
+        else
+        {
+            head.back = newNode;
+            newNode.front = head;
+        }
+        head = newNode;
+        size++;
+    }
+
+    /* Function: insertLast
+     * Import: E value.
+     * Export: None.
+     * Adds value to the end of the list.
+     */
+    public void insertLast(E value)
+    {
+        DSAListNode<E> newNode = new DSAListNode<E>(value);
+        if(tail == null)
+        {
+            head = newNode;
+        }
+        else
+        {
+            tail.front = newNode;
+            newNode.back = tail;
+        }
+        tail = newNode;
+        size++;
+    }
+
+    /* Function: removeFirst
+     * Import: None.
+     * Export: E value.
+     * Removes and returns the first value. Throws exception if the list is empty.
+     */
+    public E removeFirst()
+    {
+        DSAListNode<E> n = firstNode();
+        head = n.front;
+        if(head == null)
+        {
+            tail = null;
+        }
+        else
+        {
+            head.back = null;
+        }
+        size--;
+        return n.value;
+    }
+
+    /* Function: removeLast
+     * Import: None.
+     * Export: E value.
+     * Removes and returns the last value. Throws exception if the list is empty.
+     */
+    public E removeLast()
+    {
+        DSAListNode<E> n = lastNode();
+        tail = n.back;
+        if(tail == null)
+        {
+            head = null;
+        }
+        else
+        {
+            tail.front = null;
+        }
+        size--;
+        return n.value;
+    }
+
+    public E peekFirst()
+    {
+        return firstNode().value;
+    }
+
+    public E peekLast()
+    {
+        return lastNode().value;
+    }
+
+    private DSAListNode<E> firstNode()
+    {
+        if(head == null)
+        {
+            throw new NoSuchElementException("Error: Linked list is empty.");
+        }
+        return head;
+    }
+
+    private DSAListNode<E> lastNode()
+    {
+        if(tail == null)
+        {
+            throw new NoSuchElementException("Error: Linked list is empty.");
+        }
+        return tail;
+    }
+
+    //Iterates from first to last. The list must not be changed while iterating.
+    public Iterator<E> iterator()
+    {
+        return new DSAListIterator();
+    }
+}
@@ -0,0 +1,243 @@
+/* *
+ * Luke McDougall
+ *
+ * Hash table with primitive long keys and long values. Uses the same double hashing
+ * scheme as DSAHashTable (prime capacity, a second hash for the probe step)
+ * but keys and values are kept in primitive arrays so put and get don't box
+ * anything or turn keys into Strings.
+ *
+ * Removed entries leave a FREED slot that later inserts reuse. The table is
+ * rebuilt once live plus freed slots pass MAX_LOAD, and shrunk once the load
+ * drops to MIN_LOAD, which leaves plenty of room either side of the 0.5 load
+ * a rebuild aims for so put/remove churn doesn't keep resizing.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+
+public class DSALongLongHashTable
+{
+    private static final double MAX_LOAD = 0.6;
+    private static final double MIN_LOAD = 0.15;
+    private static final double TARGET_LOAD = 0.5;
+
+    //Slot states
+    private static final byte EMPTY = 0;
+    private static final byte FULL = 1;
+    private static final byte FREED = 2;
+
+    private long[] m_keys;
+    private long[] m_values;
+    private byte[] m_state;
+    private int capacity;
+    private int minCapacity;
+    private int size;
+    private int freed;
+    private int maxStep;
+
+    public DSALongLongHashTable(int maxSize)
+    {
+        if(maxSize < 1)
+        {
+            throw new IllegalArgumentException("Max size must be positive.");
+        }
+        capacity = nextPrime(maxSize);
+        minCapacity = capacity;
+        size = 0;
+        freed = 0;
+        m_keys = new long[capacity];
+        m_values = new long[capacity];
+        m_state = new byte[capacity];
+        maxStep = nextPrime(capacity / 2);
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /* Function: put
+     * Import: long key, long value
+     * Export: None
+     * Inserts the key and value, replacing the value if key is already present.
+     */
+    public void put(long key, long value)
+    {
+        int index = find(key);
+        if(index >= 0)
+        {
+            m_values[index] = value;
+        }
+        else
+        {
+            if((double)(size + freed + 1) / (double)capacity >= MAX_LOAD)
+            {
+                resize(size + 1);
+            }
+            insert(key, value);
+        }
+    }
+
+    /* Function: get
+     * Import: long key
+     * Export: long value
+     * Returns the value stored under key. Throws exception if there isn't one.
+     */
+    public long get(long key)
+    {
+        int index = find(key);
+        if(index < 0)
+        {
+            throw new NoSuchElementException(String.format("No element with key %d exists in the map.", key));
+        }
+        return m_values[index];
+    }
+
+    /* Function: containsKey
+     * Import: long key
+     * Export: boolean present
+     * Returns true if passed key exists in table.
+     */
+    public boolean containsKey(long key)
+    {
+        return find(key) >= 0;
+    }
+
+    /* Function: remove
+     * Import: long key
+     * Export: None
+     * Removes key and its value. Throws exception if key isn't present.
+     */
+    public void remove(long key)
+    {
+        int index = find(key);
+        if(index < 0)
+        {
+            throw new NoSuchElementException(String.format("No element with key %d exists in the map.", key));
+        }
+        m_state[index] = FREED;
+        size--;
+        freed++;
+        if((double)size / (double)capacity <= MIN_LOAD && capacity > minCapacity)
+        {
+            resize(size);
+        }
+    }
+
+    /* Function: find
+     * Import: long key
+     * Export: int index
+     * Returns the slot holding key, or -1. Stops at the first EMPTY slot.
+     */
+    private int find(long key)
+    {
+        int h = hash(key);
+        int index = h % capacity;
+        int step = probeHash(h);
+        int found = -1;
+        int probes = 0;
+        while(found < 0 && probes < capacity && m_state[index] != EMPTY)
+        {
+            if(m_state[index] == FULL && m_keys[index] == key)
+            {
+                found = index;
+            }
+            index = (index + step) % capacity;
+            probes++;
+        }
+        return found;
+    }
+
+    //Stores a key known not to be present in the first free slot of its probe sequence
+    private void insert(long key, long value)
+    {
+        int h = hash(key);
+        int index = h % capacity;
+        int step = probeHash(h);
+        while(m_state[index] == FULL)
+        {
+            index = (index + step) % capacity;
+        }
+        if(m_state[index] == FREED)
+        {
+            freed--;
+        }
+        m_keys[index] = key;
+        m_values[index] = value;
+        m_state[index] = FULL;
+        size++;
+    }
+
+    /* Function resize
+     * Import: int entries
+     * Export: None
+     * Rebuilds the table with room for entries at TARGET_LOAD, dropping FREED slots.
+     */
+    private void resize(int entries)
+    {
+        long[] oldKeys = m_keys;
+        long[] oldValues = m_values;
+        byte[] oldState = m_state;
+        capacity = nextPrime(Math.max(minCapacity, (int)(entries / TARGET_LOAD)));
+        maxStep = nextPrime(capacity / 2);
+        m_keys = new long[capacity];
+        m_values = new long[capacity];
+        m_state = new byte[capacity];
+        size = 0;
+        freed = 0;
+        for(int i = 0; i < oldState.length; i++)
+        {
+            if(oldState[i] == FULL)
+            {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /* Function: hash
+     * Import: long key
+     * Export: int h
+     * Mixes the bits of key into a non negative int.
+     */
+    private static int hash(long key)
+    {
+        long x = key * 0x9E3779B97F4A7C15L;
+        x ^= x >>> 32;
+        x *= 0xBF58476D1CE4E5B9L;
+        int h = (int)(x ^ (x >>> 29));
+        return h & Integer.MAX_VALUE;
+    }
+
+    //Step for double hashing taken from the high bits of the hash, never 0
+    private int probeHash(int h)
+    {
+        int step = (h >>> 12) % maxStep;
+        return step == 0 ? 1 : step;
+    }
+
+    //Returns the next prime number >= to start value
+    private static int nextPrime(int start)
+    {
+        int prime = (start % 2 == 0) ? start + 1 : start;
+        while(!checkPrime(prime))
+        {
+            prime += 2;
+        }
+        return prime;
+    }
+
+    private static boolean checkPrime(int prime)
+    {
+        boolean isPrime = true;
+        for(int i = 3; i * i <= prime && isPrime; i += 2)
+        {
+            isPrime = prime % i != 0;
+        }
+        return isPrime;
+    }
+}
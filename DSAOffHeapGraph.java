@@ -0,0 +1,562 @@
+/* *
+ * Luke McDougall
+ *
+ * Graph with the same interface as DSAGraph that keeps all of its storage in
+ * direct (off heap) buffers instead of vertex and list node objects, so very
+ * large graphs don't fill the heap or slow down garbage collection.
+ *
+ * Vertices get dense ids in insertion order. Each vertex's adjacency list is
+ * a linked list threaded through the edge_target/edge_next arrays, with head
+ * and tail kept per vertex so edges are appended in O(1) and come back out in
+ * insertion order like DSAGraph. Labels are looked up through an open
+ * addressing index and duplicate edges through an open addressing set of
+ * (from id, to id) keys, both also off heap.
+ *
+ * Each buffer is limited to 2GB, so up to about 500M vertices or edges and
+ * 128M edges in the duplicate edge set.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.nio.*;
+import java.util.*;
+
+public class DSAOffHeapGraph
+{
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    //INNER CLASS
+    //Depth first traversal. Each stack frame keeps the next edge of its vertex to look at.
+    private class DSAOffHeapDepthFirstIterator extends DSAEdgeIterator
+    {
+        private DSATraversalContext ctx;
+        private int[] stack;
+        private int[] cursor;
+        private int top;
+
+        public DSAOffHeapDepthFirstIterator()
+        {
+            ctx = DSATraversalContext.acquire(vertex_count);
+            stack = ctx.getIds();
+            cursor = ctx.getCursors();
+            top = 0;
+            stack[0] = 0;
+            cursor[0] = head.get(0);
+            ctx.visit(0);
+        }
+
+        protected boolean advance()
+        {
+            boolean found = false;
+            while(!found && top >= 0)
+            {
+                int e = cursor[top];
+                while(e != NONE && ctx.isVisited(edge_target.get(e)))
+                {
+                    e = edge_next.get(e);
+                }
+                if(e != NONE)
+                {
+                    int w = edge_target.get(e);
+                    cursor[top] = edge_next.get(e);
+                    setNext(labels.get(stack[top]), labels.get(w));
+                    ctx.visit(w);
+                    top++;
+                    stack[top] = w;
+                    cursor[top] = head.get(w);
+                    found = true;
+                }
+                else
+                {
+                    top--;
+                }
+            }
+            return found;
+        }
+
+        protected void release()
+        {
+            DSATraversalContext.release(ctx);
+        }
+    }
+    //END INNER CLASS
+
+    //INNER CLASS
+    //Breadth first traversal using the context's id array as the queue.
+    private class DSAOffHeapBreadthFirstIterator extends DSAEdgeIterator
+    {
+        private DSATraversalContext ctx;
+        private int[] queue;
+        private int front;
+        private int back;
+        private int v;
+        private int e;
+
+        public DSAOffHeapBreadthFirstIterator()
+        {
+            ctx = DSATraversalContext.acquire(vertex_count);
+            queue = ctx.getIds();
+            queue[0] = 0;
+            front = 0;
+            back = 1;
+            e = NONE;
+            ctx.visit(0);
+        }
+
+        protected boolean advance()
+        {
+            boolean found = false;
+            while(!found && (e != NONE || front < back))
+            {
+                if(e == NONE)
+                {
+                    v = queue[front++];
+                    e = head.get(v);
+                }
+                else
+                {
+                    int w = edge_target.get(e);
+                    e = edge_next.get(e);
+                    if(!ctx.isVisited(w))
+                    {
+                        setNext(labels.get(v), labels.get(w));
+                        ctx.visit(w);
+                        queue[back++] = w;
+                        found = true;
+                    }
+                }
+            }
+            return found;
+        }
+
+        protected void release()
+        {
+            DSATraversalContext.release(ctx);
+        }
+    }
+    //END INNER CLASS
+
+    //class fields
+    private IntBuffer labels;       //id -> label
+    private IntBuffer head;         //id -> first edge or NONE
+    private IntBuffer tail;         //id -> last edge or NONE
+    private IntBuffer edge_target;  //edge -> target id
+    private IntBuffer edge_next;    //edge -> next edge of same vertex or NONE
+    private IntBuffer index_keys;   //label index: labels
+    private IntBuffer index_ids;    //label index: id + 1, 0 if slot empty
+    private LongBuffer edge_set;    //((from << 32) | to) + 1, 0 if slot empty
+    private int vertex_count;
+    private int edge_count;
+
+    //Default constructor
+    public DSAOffHeapGraph()
+    {
+        labels = allocateInts(INITIAL_CAPACITY);
+        head = allocateInts(INITIAL_CAPACITY);
+        tail = allocateInts(INITIAL_CAPACITY);
+        edge_target = allocateInts(INITIAL_CAPACITY);
+        edge_next = allocateInts(INITIAL_CAPACITY);
+        index_keys = allocateInts(INITIAL_CAPACITY * 2);
+        index_ids = allocateInts(INITIAL_CAPACITY * 2);
+        edge_set = allocateLongs(INITIAL_CAPACITY * 2);
+        vertex_count = 0;
+        edge_count = 0;
+    }
+
+    public int getVertexCount()
+    {
+        return vertex_count;
+    }
+
+    public int getEdgeCount()
+    {
+        return edge_count;
+    }
+
+    /* Function: addVertex
+     * Import: int label.
+     * Export: None.
+     *
+     * Creates a new vertex with the passed label if there are no current vertices
+     * with the same label. Throws exception otherwise.
+     */
+    public void addVertex(int label)
+    {
+        if(findId(label) != NONE)
+        {
+            throw new IllegalArgumentException(String.format("Error: Graph already contains vertex %d.", label));
+        }
+        if(vertex_count == labels.capacity())
+        {
+            int capacity = labels.capacity() * 2;
+            labels = growInts(labels, capacity);
+            head = growInts(head, capacity);
+            tail = growInts(tail, capacity);
+        }
+        if((vertex_count + 1) * 2 > index_keys.capacity())
+        {
+            growIndex();
+        }
+        int id = vertex_count;
+        labels.put(id, label);
+        head.put(id, NONE);
+        tail.put(id, NONE);
+        indexInsert(label, id);
+        vertex_count++;
+    }
+
+    /* Function addEdge
+     * Import: int vertex_label_1, int vertex_label_2.
+     * Export: None.
+     *
+     * Adds the vertex with label vertex_label_2 to the adjacency list of
+     * the vertex with label vertex_label_1 if both vertices exist. Throws
+     * exception otherwise, or if the edge is already present.
+     */
+    public void addEdge(int vertex_label_1, int vertex_label_2)
+    {
+        int from = findId(vertex_label_1);
+        int to = findId(vertex_label_2);
+        if(from == NONE || to == NONE)
+        {
+            throw new IllegalArgumentException("Error: One or more of the passed vertex labels are not present in graph.");
+        }
+        if(edgePresent(from, to))
+        {
+            throw new IllegalArgumentException("Error: Edge already present.");
+        }
+        if(edge_count == edge_target.capacity())
+        {
+            int capacity = edge_target.capacity() * 2;
+            edge_target = growInts(edge_target, capacity);
+            edge_next = growInts(edge_next, capacity);
+        }
+        if((edge_count + 1) * 2 > edge_set.capacity())
+        {
+            growEdgeSet();
+        }
+        int e = edge_count;
+        edge_target.put(e, to);
+        edge_next.put(e, NONE);
+        if(tail.get(from) == NONE)
+        {
+            head.put(from, e);
+        }
+        else
+        {
+            edge_next.put(tail.get(from), e);
+        }
+        tail.put(from, e);
+        edgeSetInsert(edgeKey(from, to));
+        edge_count++;
+    }
+
+    /* Function: hasEdge
+     * Import: int vertex_label_1, int vertex_label_2.
+     * Export: boolean present.
+     *
+     * Returns true if there is an edge from the vertex labelled vertex_label_1
+     * to the vertex labelled vertex_label_2.
+     */
+    public boolean hasEdge(int vertex_label_1, int vertex_label_2)
+    {
+        int from = findId(vertex_label_1);
+        int to = findId(vertex_label_2);
+        return from != NONE && to != NONE && edgePresent(from, to);
+    }
+
+    /* Function: freeze
+     * Import: None.
+     * Export: DSAFrozenGraph frozen.
+     * Builds an immutable compressed sparse row snapshot of the graph.
+     */
+    public DSAFrozenGraph freeze()
+    {
+        int[] frozen_labels = new int[vertex_count];
+        int[] offsets = new int[vertex_count + 1];
+        int[] targets = new int[edge_count];
+        int edge = 0;
+        for(int v = 0; v < vertex_count; v++)
+        {
+            frozen_labels[v] = labels.get(v);
+            offsets[v] = edge;
+            for(int e = head.get(v); e != NONE; e = edge_next.get(e))
+            {
+                targets[edge] = edge_target.get(e);
+                edge++;
+            }
+        }
+        offsets[vertex_count] = edge;
+        return new DSAFrozenGraph(frozen_labels, offsets, targets);
+    }
+
+    /* Function: displayList
+     * Import: None.
+     * Export: String table.
+     * Returns a string representing the graph as an adjacency list.
+     */
+    public String displayList()
+    {
+        StringBuilder table = new StringBuilder("Vertex |Adjacent\n");
+        for(int v = 0; v < vertex_count; v++)
+        {
+            table.append(String.format("%-7c|", labels.get(v)));
+            for(int e = head.get(v); e != NONE; e = edge_next.get(e))
+            {
+                table.append(String.format("%c ", labels.get(edge_target.get(e))));
+            }
+            table.append("\n");
+        }
+        return table.toString();
+    }
+
+    /* Function displayMatrix
+     * Import: None.
+     * Export: String adjacency_matrix_str.
+     * Returns a formatted string representing the graph as an adjacency matrix.
+     */
+    public String displayMatrix()
+    {
+        StringBuilder adjacency_matrix_str = new StringBuilder("Vertex Matrix\n    ");
+        StringBuilder row_border = new StringBuilder("   |");
+        for(int v = 0; v < vertex_count; v++)
+        {
+            row_border.append("---|");
+            adjacency_matrix_str.append(String.format("%3c|", labels.get(v)));
+        }
+        row_border.append("\n");
+        adjacency_matrix_str.append("\n").append(row_border);
+        boolean[] row = new boolean[vertex_count];
+        for(int v = 0; v < vertex_count; v++)
+        {
+            Arrays.fill(row, false);
+            for(int e = head.get(v); e != NONE; e = edge_next.get(e))
+            {
+                row[edge_target.get(e)] = true;
+            }
+            adjacency_matrix_str.append(String.format("%3c|", labels.get(v)));
+            for(int j = 0; j < vertex_count; j++)
+            {
+                adjacency_matrix_str.append(String.format("%3d|", row[j] ? 1 : 0));
+            }
+            adjacency_matrix_str.append("\n").append(row_border);
+        }
+        return adjacency_matrix_str.toString();
+    }
+
+    /* Function: depthFirstSearch
+     * Import: None.
+     * Export: DSAQueue T.
+     *
+     * Performs depth first search on the graph and returns a queue of vertex
+     * labels.
+     */
+    public DSAQueue<Integer> depthFirstSearch()
+    {
+        final DSAQueue<Integer> T = new DSAQueue<Integer>();
+        depthFirstSearch((parent, child) ->
+        {
+            T.enqueue(parent);
+            T.enqueue(child);
+            return true;
+        });
+        return T;
+    }
+
+    /* Function: depthFirstSearch
+     * Import: DSAEdgeVisitor visitor.
+     * Export: None.
+     * Performs depth first search passing each edge to visitor as it is found.
+     */
+    public void depthFirstSearch(DSAEdgeVisitor visitor)
+    {
+        depthFirstIterator().forEachEdge(visitor);
+    }
+
+    /* Function: depthFirstIterator
+     * Import: None.
+     * Export: DSAEdgeIterator iter.
+     * Returns a lazy depth first traversal of the graph.
+     */
+    public DSAEdgeIterator depthFirstIterator()
+    {
+        checkNotEmpty();
+        return new DSAOffHeapDepthFirstIterator();
+    }
+
+    /* Function: breadthFirstSearch
+     * Import: None.
+     * Export: DSAQueue T.
+     *
+     * Performs breadth first search on the graph and returns a queue of vertex
+     * labels.
+     */
+    public DSAQueue<Integer> breadthFirstSearch()
+    {
+        final DSAQueue<Integer> T = new DSAQueue<Integer>();
+        breadthFirstSearch((parent, child) ->
+        {
+            T.enqueue(parent);
+            T.enqueue(child);
+            return true;
+        });
+        return T;
+    }
+
+    /* Function: breadthFirstSearch
+     * Import: DSAEdgeVisitor visitor.
+     * Export: None.
+     * Performs breadth first search passing each edge to visitor as it is found.
+     */
+    public void breadthFirstSearch(DSAEdgeVisitor visitor)
+    {
+        breadthFirstIterator().forEachEdge(visitor);
+    }
+
+    /* Function: breadthFirstIterator
+     * Import: None.
+     * Export: DSAEdgeIterator iter.
+     * Returns a lazy breadth first traversal of the graph.
+     */
+    public DSAEdgeIterator breadthFirstIterator()
+    {
+        checkNotEmpty();
+        return new DSAOffHeapBreadthFirstIterator();
+    }
+
+    //Traversals start at the first vertex so there has to be one.
+    private void checkNotEmpty()
+    {
+        if(vertex_count == 0)
+        {
+            throw new IllegalStateException("Error: Graph has no vertices.");
+        }
+    }
+
+    /* Function: findId
+     * Import: int label.
+     * Export: int id.
+     * Returns the id of the vertex with the passed label or NONE.
+     */
+    private int findId(int label)
+    {
+        int mask = index_keys.capacity() - 1;
+        int index = mix(label) & mask;
+        int id = NONE;
+        int stored = index_ids.get(index);
+        while(stored != 0 && id == NONE)
+        {
+            if(index_keys.get(index) == label)
+            {
+                id = stored - 1;
+            }
+            index = (index + 1) & mask;
+            stored = index_ids.get(index);
+        }
+        return id;
+    }
+
+    private void indexInsert(int label, int id)
+    {
+        int mask = index_keys.capacity() - 1;
+        int index = mix(label) & mask;
+        while(index_ids.get(index) != 0)
+        {
+            index = (index + 1) & mask;
+        }
+        index_keys.put(index, label);
+        index_ids.put(index, id + 1);
+    }
+
+    //Doubles the label index. Ids are reinserted by walking the labels array.
+    private void growIndex()
+    {
+        int capacity = index_keys.capacity() * 2;
+        index_keys = allocateInts(capacity);
+        index_ids = allocateInts(capacity);
+        for(int id = 0; id < vertex_count; id++)
+        {
+            indexInsert(labels.get(id), id);
+        }
+    }
+
+    private boolean edgePresent(int from, int to)
+    {
+        long key = edgeKey(from, to);
+        int mask = edge_set.capacity() - 1;
+        int index = mix(key) & mask;
+        boolean present = false;
+        long stored = edge_set.get(index);
+        while(stored != 0 && !present)
+        {
+            present = stored == key;
+            index = (index + 1) & mask;
+            stored = edge_set.get(index);
+        }
+        return present;
+    }
+
+    private void edgeSetInsert(long key)
+    {
+        int mask = edge_set.capacity() - 1;
+        int index = mix(key) & mask;
+        while(edge_set.get(index) != 0)
+        {
+            index = (index + 1) & mask;
+        }
+        edge_set.put(index, key);
+    }
+
+    private void growEdgeSet()
+    {
+        LongBuffer old = edge_set;
+        edge_set = allocateLongs(old.capacity() * 2);
+        for(int i = 0; i < old.capacity(); i++)
+        {
+            long key = old.get(i);
+            if(key != 0)
+            {
+                edgeSetInsert(key);
+            }
+        }
+    }
+
+    //Ids are non negative so the + 1 never leaves 0, which marks an empty slot
+    private static long edgeKey(int from, int to)
+    {
+        return (((long)from << 32) | to) + 1;
+    }
+
+    private static int mix(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int mix(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    //Direct buffers start zeroed
+    private static IntBuffer allocateInts(int count)
+    {
+        return ByteBuffer.allocateDirect(count * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static LongBuffer allocateLongs(int count)
+    {
+        return ByteBuffer.allocateDirect(count * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static IntBuffer growInts(IntBuffer old, int capacity)
+    {
+        IntBuffer grown = allocateInts(capacity);
+        IntBuffer src = old.duplicate();
+        src.clear();
+        grown.put(src);
+        grown.clear();
+        return grown;
+    }
+}
@@ -0,0 +1,286 @@
+/* *
+ * Luke McDougall
+ *
+ * Equivalence check for the primitive key tables: DSAIntHashTable,
+ * DSALongHashTable, DSAIntIntHashTable and DSALongLongHashTable. Each one
+ * runs random puts, gets, containsKey and removes against a
+ * java.util.HashMap doing the same thing, and stops with an exception at
+ * the first difference, including a get or remove that throws when the map
+ * has the key or doesn't throw when it hasn't.
+ *
+ * The key set grows and shrinks between phases so the tables grow, shrink
+ * and rebuild over their FREED slots. Keys include 0, negatives and the
+ * extremes, and the long tables also get keys that only differ in their
+ * high 32 bits so a hash that drops them shows up as lost entries.
+ *
+ * Usage: java DSAPrimitiveHashTableCheck [ops] [seed]
+ *
+ * Last updated 18/10/2026
+ * */
+import java.util.*;
+
+public class DSAPrimitiveHashTableCheck
+{
+    private static final int DEFAULT_OPS = 400000;   //Random operations per table
+    private static final int PHASES = 8;             //Key set size changes per table
+    private static final long[] EDGE_KEYS = {0L, -1L, 1L, Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+    /*INNER CLASS*/
+    //One table seen through long keys and values, so every table runs the same check
+    private interface DSAPrimitiveTable
+    {
+        void put(long key, long value);
+        long get(long key);
+        boolean containsKey(long key);
+        void remove(long key);
+        int getSize();
+    }
+    /*END INNER CLASS*/
+
+    public static void main(String[] args)
+    {
+        int ops = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_OPS;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 1L;
+        checkTable("DSAIntHashTable", intTable(1), false, ops, new Random(seed));
+        checkTable("DSALongHashTable", longTable(1), true, ops, new Random(seed + 1));
+        checkTable("DSAIntIntHashTable", intIntTable(1), false, ops, new Random(seed + 2));
+        checkTable("DSALongLongHashTable", longLongTable(1), true, ops, new Random(seed + 3));
+        System.out.println("All primitive hash table checks passed.");
+    }
+
+    private static DSAPrimitiveTable intTable(int maxSize)
+    {
+        final DSAIntHashTable<Long> table = new DSAIntHashTable<Long>(maxSize);
+        return new DSAPrimitiveTable()
+        {
+            public void put(long key, long value)
+            {
+                table.put((int)key, value);
+            }
+
+            public long get(long key)
+            {
+                return table.get((int)key);
+            }
+
+            public boolean containsKey(long key)
+            {
+                return table.containsKey((int)key);
+            }
+
+            public void remove(long key)
+            {
+                table.remove((int)key);
+            }
+
+            public int getSize()
+            {
+                return table.getSize();
+            }
+        };
+    }
+
+    private static DSAPrimitiveTable longTable(int maxSize)
+    {
+        final DSALongHashTable<Long> table = new DSALongHashTable<Long>(maxSize);
+        return new DSAPrimitiveTable()
+        {
+            public void put(long key, long value)
+            {
+                table.put(key, value);
+            }
+
+            public long get(long key)
+            {
+                return table.get(key);
+            }
+
+            public boolean containsKey(long key)
+            {
+                return table.containsKey(key);
+            }
+
+            public void remove(long key)
+            {
+                table.remove(key);
+            }
+
+            public int getSize()
+            {
+                return table.getSize();
+            }
+        };
+    }
+
+    private static DSAPrimitiveTable intIntTable(int maxSize)
+    {
+        final DSAIntIntHashTable table = new DSAIntIntHashTable(maxSize);
+        return new DSAPrimitiveTable()
+        {
+            public void put(long key, long value)
+            {
+                table.put((int)key, (int)value);
+            }
+
+            public long get(long key)
+            {
+                return table.get((int)key);
+            }
+
+            public boolean containsKey(long key)
+            {
+                return table.containsKey((int)key);
+            }
+
+            public void remove(long key)
+            {
+                table.remove((int)key);
+            }
+
+            public int getSize()
+            {
+                return table.getSize();
+            }
+        };
+    }
+
+    private static DSAPrimitiveTable longLongTable(int maxSize)
+    {
+        final DSALongLongHashTable table = new DSALongLongHashTable(maxSize);
+        return new DSAPrimitiveTable()
+        {
+            public void put(long key, long value)
+            {
+                table.put(key, value);
+            }
+
+            public long get(long key)
+            {
+                return table.get(key);
+            }
+
+            public boolean containsKey(long key)
+            {
+                return table.containsKey(key);
+            }
+
+            public void remove(long key)
+            {
+                table.remove(key);
+            }
+
+            public int getSize()
+            {
+                return table.getSize();
+            }
+        };
+    }
+
+    //Key for a phase: mostly from a range around 0, sometimes an edge value or, for long tables, a high bits only key
+    private static long key(Random rand, int space, boolean wide)
+    {
+        int choice = rand.nextInt(16);
+        long key;
+        if(choice == 0)
+        {
+            key = EDGE_KEYS[rand.nextInt(EDGE_KEYS.length)];
+        }
+        else if(choice == 1 && wide)
+        {
+            key = (long)rand.nextInt(space) << 32;
+        }
+        else
+        {
+            key = rand.nextInt(space) - space / 2;
+        }
+        return key;
+    }
+
+    /* Function: checkTable
+     * Import: String name, DSAPrimitiveTable table, boolean wide, int ops, Random rand.
+     * Export: None.
+     * Runs ops random operations on table and a HashMap, comparing every
+     * result and, at the end of each phase, every key the map holds.
+     */
+    private static void checkTable(String name, DSAPrimitiveTable table, boolean wide, int ops, Random rand)
+    {
+        HashMap<Long, Long> map = new HashMap<Long, Long>();
+        for(int phase = 0; phase < PHASES; phase++)
+        {
+            //Alternate between a big key set to grow into and a small one to shrink back to
+            int space = (phase % 2 == 0) ? 64 << rand.nextInt(10) : 1 + rand.nextInt(32);
+            for(int op = 0; op < ops / PHASES; op++)
+            {
+                int choice = rand.nextInt(100);
+                long key = key(rand, space, wide);
+                if(choice < 40)
+                {
+                    //int value tables keep the low 32 bits, so the map does too
+                    long value = wide ? rand.nextLong() : rand.nextInt();
+                    table.put(key, value);
+                    map.put(key, value);
+                }
+                else if(choice < 60)
+                {
+                    Long expected = map.get(key);
+                    expect(table.containsKey(key) == (expected != null), name, "containsKey " + key);
+                    expect(Objects.equals(expected, get(table, key)), name, "get " + key);
+                }
+                else if(choice < 80)
+                {
+                    expect(remove(table, key) == (map.remove(key) != null), name, "remove " + key);
+                }
+                else if(space < 64)
+                {
+                    //Removing the big phase's keys drains the table towards a shrink
+                    long old = key(rand, 64 << 9, wide);
+                    expect(remove(table, old) == (map.remove(old) != null), name, "remove " + old);
+                }
+                expect(table.getSize() == map.size(), name, "size " + table.getSize() + " vs " + map.size());
+            }
+            for(Map.Entry<Long, Long> entry : map.entrySet())
+            {
+                expect(entry.getValue().equals(get(table, entry.getKey())), name, "get " + entry.getKey());
+            }
+        }
+        System.out.println(name + " ok");
+    }
+
+    //The table's value for key, or null if get says it has none
+    private static Long get(DSAPrimitiveTable table, long key)
+    {
+        Long value;
+        try
+        {
+            value = table.get(key);
+        }
+        catch(NoSuchElementException e)
+        {
+            value = null;
+        }
+        return value;
+    }
+
+    //True if the table had key to remove
+    private static boolean remove(DSAPrimitiveTable table, long key)
+    {
+        boolean removed = true;
+        try
+        {
+            table.remove(key);
+        }
+        catch(NoSuchElementException e)
+        {
+            removed = false;
+        }
+        return removed;
+    }
+
+    private static void expect(boolean condition, String name, String what)
+    {
+        if(!condition)
+        {
+            throw new IllegalStateException(String.format("%s: %s differs from HashMap.", name, what));
+        }
+    }
+}
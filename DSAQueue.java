@@ -0,0 +1,62 @@
+/* *
+ * Luke McDougall
+ *
+ * First in first out queue on a DSALinkedList, the Java version of Queue in
+ * Collection.py. Iterating goes from the front of the queue to the back.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+
+public class DSAQueue<E> implements Iterable<E>
+{
+    private DSALinkedList<E> queue;
+
+    public DSAQueue()
+    {
+        queue = new DSALinkedList<E>();
+    }
+
+    public void enqueue(E value)
+    {
+        queue.insertLast(value);
+    }
+
+    /* Function: dequeue
+     * Import: None.
+     * Export: E value.
+     * Removes and returns the value at the front. Throws exception if the queue is empty.
+     */
+    public E dequeue()
+    {
+        if(queue.isEmpty())
+        {
+            throw new NoSuchElementException("Error: Queue is empty.");
+        }
+        return queue.removeFirst();
+    }
+
+    public E peek()
+    {
+        if(queue.isEmpty())
+        {
+            throw new NoSuchElementException("Error: Queue is empty.");
+        }
+        return queue.peekFirst();
+    }
+
+    public int getSize()
+    {
+        return queue.getSize();
+    }
+
+    public boolean isEmpty()
+    {
+        return queue.isEmpty();
+    }
+
+    public Iterator<E> iterator()
+    {
+        return queue.iterator();
+    }
+}
@@ -0,0 +1,262 @@
+/* *
+ * Luke McDougall
+ *
+ * Reusable workspace for weighted shortest paths on a DSAFrozenGraph.
+ * fromSource runs Dijkstra's algorithm from one vertex to every vertex it
+ * can reach. between runs Dijkstra, or A* if given a DSAHeuristic, from one
+ * vertex and stops as soon as the target's distance is known. Edge weights
+ * come from the graph, DSAGraph.DEFAULT_WEIGHT each if it is unweighted.
+ *
+ * Distances, parents and the DSAIndexedHeap are sized to the graph when the
+ * workspace is made and reused by every search, so a search allocates
+ * nothing. Rather than clearing them between searches each vertex is stamped
+ * with the search that last reached it, and older stamps count as
+ * unreached. A workspace must only be used by one thread at a time, but
+ * any number of workspaces can search the same graph at once.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.nio.*;
+import java.util.*;
+
+public class DSAShortestPaths
+{
+    private static final int NONE = -1;
+
+    //class fields
+    private IntBuffer labels;
+    private IntBuffer offsets;
+    private IntBuffer targets;
+    private DoubleBuffer weights;
+    private DSAFrozenGraph graph;
+    private int vertex_count;
+    private DSAIndexedHeap heap;
+    private double[] distance;
+    private int[] parent;
+    //Heuristic value per vertex, only made once an A* search is run
+    private double[] estimate;
+    private int[] stamp;
+    private int search;
+    private int source;
+    private int settled;
+
+    public DSAShortestPaths(DSAFrozenGraph graph)
+    {
+        this.graph = graph;
+        labels = graph.getLabels();
+        offsets = graph.getOffsets();
+        targets = graph.getTargets();
+        weights = graph.getWeights();
+        vertex_count = graph.getVertexCount();
+        heap = new DSAIndexedHeap(vertex_count);
+        distance = new double[vertex_count];
+        parent = new int[vertex_count];
+        estimate = null;
+        stamp = new int[vertex_count];
+        search = 0;
+        source = NONE;
+        settled = 0;
+    }
+
+    /* Function: fromSource
+     * Import: int source_label.
+     * Export: None.
+     * Finds the shortest distance and path from source to every vertex it
+     * can reach. Read them with distanceTo and pathTo.
+     */
+    public void fromSource(int source_label)
+    {
+        start(source_label);
+        run(NONE, 0, null);
+    }
+
+    /* Function: between
+     * Import: int source_label, int target_label.
+     * Export: double distance.
+     * Dijkstra from source that stops once target is reached. Returns the
+     * distance, or infinity if target can't be reached.
+     */
+    public double between(int source_label, int target_label)
+    {
+        return between(source_label, target_label, null);
+    }
+
+    /* Function: between
+     * Import: int source_label, int target_label, DSAHeuristic heuristic.
+     * Export: double distance.
+     *
+     * A* from source to target, expanding vertices in order of distance so
+     * far plus heuristic's estimate of the rest. With a null heuristic this
+     * is plain Dijkstra. Afterwards pathTo(target_label) gives the path, but
+     * distances to other vertices are only upper bounds.
+     */
+    public double between(int source_label, int target_label, DSAHeuristic heuristic)
+    {
+        int target = checkLabel(target_label);
+        start(source_label);
+        if(heuristic != null && estimate == null)
+        {
+            estimate = new double[vertex_count];
+        }
+        run(target, target_label, heuristic);
+        return distanceTo(target_label);
+    }
+
+    /* Function: start
+     * Import: int source_label.
+     * Export: None.
+     * Starts a new search from source, leaving every other vertex unreached.
+     */
+    private void start(int source_label)
+    {
+        source = checkLabel(source_label);
+        if(search == Integer.MAX_VALUE)
+        {
+            Arrays.fill(stamp, 0);
+            search = 0;
+        }
+        search++;
+        heap.clear();
+        settled = 0;
+        stamp[source] = search;
+        distance[source] = 0.0;
+        parent[source] = NONE;
+        heap.insert(source, 0.0);
+    }
+
+    /* Function: run
+     * Import: int target, int target_label, DSAHeuristic heuristic.
+     * Export: None.
+     *
+     * Expands vertices until the heap runs out or target (NONE for every
+     * vertex) comes off it. A vertex's key is its distance plus its estimate,
+     * worked out once when it is first reached. Weights are never negative
+     * so plain Dijkstra never improves an expanded vertex. A* with a heuristic
+     * that isn't consistent can, and just puts the vertex back on the heap.
+     */
+    private void run(int target, int target_label, DSAHeuristic heuristic)
+    {
+        boolean done = false;
+        while(!done && !heap.isEmpty())
+        {
+            int v = heap.pop();
+            settled++;
+            if(v == target)
+            {
+                done = true;
+            }
+            else
+            {
+                double dv = distance[v];
+                int end = offsets.get(v + 1);
+                for(int e = offsets.get(v); e < end; e++)
+                {
+                    int w = targets.get(e);
+                    double d = dv + ((weights == null) ? DSAGraph.DEFAULT_WEIGHT : weights.get(e));
+                    if(stamp[w] != search)
+                    {
+                        stamp[w] = search;
+                        distance[w] = d;
+                        parent[w] = v;
+                        if(heuristic != null)
+                        {
+                            estimate[w] = heuristic.estimate(labels.get(w), target_label);
+                        }
+                        heap.insert(w, d + ((heuristic == null) ? 0.0 : estimate[w]));
+                    }
+                    else if(d < distance[w])
+                    {
+                        distance[w] = d;
+                        parent[w] = v;
+                        heap.offer(w, d + ((heuristic == null) ? 0.0 : estimate[w]));
+                    }
+                }
+            }
+        }
+    }
+
+    //Vertices taken off the heap by the last search, a measure of the work it did
+    public int getSettledCount()
+    {
+        return settled;
+    }
+
+    public boolean isReached(int label)
+    {
+        int id = checkLabel(label);
+        return source != NONE && stamp[id] == search;
+    }
+
+    /* Function: distanceTo
+     * Import: int label.
+     * Export: double distance.
+     * Returns the distance from the last search's source, or infinity if the
+     * vertex wasn't reached.
+     */
+    public double distanceTo(int label)
+    {
+        return isReached(label) ? distance[checkLabel(label)] : Double.POSITIVE_INFINITY;
+    }
+
+    /* Function: pathTo
+     * Import: int label, int[] path.
+     * Export: int length.
+     *
+     * Writes the labels along the path from the last search's source to the
+     * passed vertex into path, source first, and returns how many there are.
+     * Returns 0 if the vertex wasn't reached. path must be long enough to
+     * hold the whole path, which getVertexCount() always is.
+     */
+    public int pathTo(int label, int[] path)
+    {
+        int length = 0;
+        if(isReached(label))
+        {
+            int id = checkLabel(label);
+            for(int v = id; v != NONE; v = parent[v])
+            {
+                length++;
+            }
+            if(length > path.length)
+            {
+                throw new IllegalArgumentException(String.format("Error: Path of %d vertices doesn't fit in %d.", length, path.length));
+            }
+            int i = length - 1;
+            for(int v = id; v != NONE; v = parent[v])
+            {
+                path[i] = labels.get(v);
+                i--;
+            }
+        }
+        return length;
+    }
+
+    /* Function: path
+     * Import: int label.
+     * Export: DSAQueue T.
+     * Returns a queue of the labels along the path to the passed vertex,
+     * source first. Empty if the vertex wasn't reached.
+     */
+    public DSAQueue<Integer> path(int label)
+    {
+        int[] labels_on_path = new int[vertex_count];
+        int length = pathTo(label, labels_on_path);
+        DSAQueue<Integer> T = new DSAQueue<Integer>();
+        for(int i = 0; i < length; i++)
+        {
+            T.enqueue(labels_on_path[i]);
+        }
+        return T;
+    }
+
+    //Dense id of the passed label. Throws exception if it isn't in the graph.
+    private int checkLabel(int label)
+    {
+        int id = graph.findId(label);
+        if(id == NONE)
+        {
+            throw new IllegalArgumentException(String.format("Error: Graph doesn't contain vertex %d.", label));
+        }
+        return id;
+    }
+}
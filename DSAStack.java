@@ -0,0 +1,57 @@
+/* *
+ * Luke McDougall
+ *
+ * Last in first out stack on a DSALinkedList, the Java version of Stack in
+ * Collection.py.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+
+public class DSAStack<E>
+{
+    private DSALinkedList<E> stack;
+
+    public DSAStack()
+    {
+        stack = new DSALinkedList<E>();
+    }
+
+    public void push(E value)
+    {
+        stack.insertFirst(value);
+    }
+
+    /* Function: pop
+     * Import: None.
+     * Export: E value.
+     * Removes and returns the top value. Throws exception if the stack is empty.
+     */
+    public E pop()
+    {
+        if(stack.isEmpty())
+        {
+            throw new NoSuchElementException("Error: Stack is empty.");
+        }
+        return stack.removeFirst();
+    }
+
+    public E top()
+    {
+        if(stack.isEmpty())
+        {
+            throw new NoSuchElementException("Error: Stack is empty.");
+        }
+        return stack.peekFirst();
+    }
+
+    public int getSize()
+    {
+        return stack.getSize();
+    }
+
+    public boolean isEmpty()
+    {
+        return stack.isEmpty();
+    }
+}
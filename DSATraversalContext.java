@@ -0,0 +1,119 @@
+/* *
+ * Luke McDougall
+ *
+ * Per call state for graph traversals. Holds a visited bitset keyed by dense
+ * vertex id plus two int arrays of scratch space (a stack or queue of ids and
+ * a cursor per stack frame). Keeping this out of the graph lets any number of
+ * threads traverse the same graph at once as long as nobody modifies it.
+ *
+ * Contexts are pooled so a traversal normally allocates nothing. A context
+ * that is never released is just left for the garbage collector.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+class DSATraversalContext
+{
+    //Most contexts kept in the pool at once. Extra released ones are dropped.
+    private static final int POOL_MAX = 64;
+
+    private static final ConcurrentLinkedQueue<DSATraversalContext> pool = new ConcurrentLinkedQueue<DSATraversalContext>();
+    private static final AtomicInteger pooled = new AtomicInteger(0);
+
+    //class fields
+    private long[] visited;
+    private int[] ids;
+    private int[] cursors;
+    private int capacity;
+
+    private DSATraversalContext()
+    {
+        visited = new long[0];
+        ids = new int[0];
+        cursors = new int[0];
+        capacity = 0;
+    }
+
+    /* Function: acquire
+     * Import: int vertex_count.
+     * Export: DSATraversalContext ctx.
+     *
+     * Takes a context from the pool (or makes one) big enough for a graph of
+     * vertex_count vertices, with nothing marked visited.
+     */
+    public static DSATraversalContext acquire(int vertex_count)
+    {
+        DSATraversalContext ctx = pool.poll();
+        if(ctx == null)
+        {
+            ctx = new DSATraversalContext();
+        }
+        else
+        {
+            pooled.decrementAndGet();
+        }
+        ctx.reset(vertex_count);
+        return ctx;
+    }
+
+    /* Function: release
+     * Import: DSATraversalContext ctx.
+     * Export: None.
+     * Hands the context back to the pool. It must not be used afterwards.
+     */
+    public static void release(DSATraversalContext ctx)
+    {
+        if(pooled.incrementAndGet() <= POOL_MAX)
+        {
+            pool.offer(ctx);
+        }
+        else
+        {
+            pooled.decrementAndGet();
+        }
+    }
+
+    //Grows the arrays if needed and clears the visited bits for the first vertex_count ids
+    private void reset(int vertex_count)
+    {
+        int words = (vertex_count + 63) >>> 6;
+        if(vertex_count > capacity)
+        {
+            visited = new long[words];
+            ids = new int[vertex_count];
+            cursors = new int[vertex_count];
+            capacity = vertex_count;
+        }
+        else
+        {
+            for(int i = 0; i < words; i++)
+            {
+                visited[i] = 0L;
+            }
+        }
+    }
+
+    public boolean isVisited(int id)
+    {
+        return (visited[id >>> 6] & (1L << id)) != 0;
+    }
+
+    public void visit(int id)
+    {
+        visited[id >>> 6] |= 1L << id;
+    }
+
+    //Scratch array of at least vertex_count ids, used as a stack or queue
+    public int[] getIds()
+    {
+        return ids;
+    }
+
+    //Scratch array of at least vertex_count edge cursors
+    public int[] getCursors()
+    {
+        return cursors;
+    }
+}
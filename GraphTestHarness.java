@@ -0,0 +1,181 @@
+/* *
+ * Luke McDougall
+ *
+ * Testharness to build graphs of various shapes and time traversals on them.
+ * Modelled on SortsTestHarness.py so the output can be fed to gnuplot the
+ * same way. runjava.sh runs it over a range of n.
+ *
+ * Each test is first run WARMUP times untimed so the JIT has compiled it,
+ * then REPEATS times with the mean taken as the running time. Both can be
+ * changed with -Dharness.warmup=w and -Dharness.repeats=r. Each test's
+ * result is written to a volatile sink so the JIT can't drop the work being
+ * timed as unused.
+ *
+ * Last updated 17/10/2026
+ * */
+import java.util.*;
+
+public class GraphTestHarness
+{
+    private static final int WARMUP = Integer.getInteger("harness.warmup", 2);    //Untimed runs first
+    private static final int REPEATS = Integer.getInteger("harness.repeats", 3);  //Timed runs averaged
+    private static final int RANDOM_DEGREE = 4;  //Average out degree of random graphs
+    private static final int MAX_WEIGHT = 100;   //Weights of weighted random graphs are 1 to this
+
+    //Every test's result ends up here so its work can't be optimised away
+    private static volatile long sink;
+
+    private static void usage()
+    {
+        System.out.println(" Usage: java GraphTestHarness n xy [xy ...]");
+        System.out.println("        where");
+        System.out.println("        n is number of vertices");
+        System.out.println("        x is one of");
+        System.out.println("           d - depth first search");
+        System.out.println("           b - breadth first search");
+        System.out.println("           f - depth first search on frozen graph");
+        System.out.println("           g - breadth first search on frozen graph");
+        System.out.println("           p - parallel breadth first search on frozen graph");
+        System.out.println("           s - shortest paths from vertex 0 on frozen graph");
+        System.out.println("           c - construction, adding every vertex and edge");
+        System.out.println("           m - adjacency matrix display");
+        System.out.println("        y is one of");
+        System.out.println("           h - hub, vertex 0 linked both ways with every other vertex");
+        System.out.println("           l - line, each vertex linked to the next");
+        System.out.println("           r - random, about " + RANDOM_DEGREE + " edges per vertex");
+        System.out.println("           w - random as above with weights 1 to " + MAX_WEIGHT);
+    }
+
+    /* Function: makeGraph
+     * Import: int n, char graphType.
+     * Export: DSAGraph graph.
+     * Builds a graph with n vertices labelled 0..n-1 of the passed shape.
+     */
+    private static DSAGraph makeGraph(int n, char graphType)
+    {
+        DSAGraph graph = new DSAGraph();
+        for(int i = 0; i < n; i++)
+        {
+            graph.addVertex(i);
+        }
+        if(graphType == 'h')
+        {
+            for(int i = 1; i < n; i++)
+            {
+                graph.addEdge(0, i);
+                graph.addEdge(i, 0);
+            }
+        }
+        else if(graphType == 'l')
+        {
+            for(int i = 0; i < n - 1; i++)
+            {
+                graph.addEdge(i, i + 1);
+            }
+        }
+        else if(graphType == 'r' || graphType == 'w')
+        {
+            Random rand = new Random(n);
+            for(int i = 0; i < n * RANDOM_DEGREE; i++)
+            {
+                int from = rand.nextInt(n);
+                int to = rand.nextInt(n);
+                if(!graph.hasEdge(from, to))
+                {
+                    double weight = (graphType == 'w') ? 1 + rand.nextInt(MAX_WEIGHT) : DSAGraph.DEFAULT_WEIGHT;
+                    graph.addEdge(from, to, weight);
+                }
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unsupported graph type");
+        }
+        return graph;
+    }
+
+    /* Function: runTest
+     * Import: int n, char graphType, DSAGraph graph, DSAFrozenGraph frozen, char testType.
+     * Export: long result.
+     * Runs the requested test once and returns something that depends on
+     * all of its work. Construction builds a new graph rather than using
+     * the passed one.
+     */
+    private static long runTest(int n, char graphType, DSAGraph graph, DSAFrozenGraph frozen, char testType)
+    {
+        long result;
+        if(testType == 'd')
+        {
+            result = graph.depthFirstSearch().getSize();
+        }
+        else if(testType == 'b')
+        {
+            result = graph.breadthFirstSearch().getSize();
+        }
+        else if(testType == 'f')
+        {
+            result = frozen.depthFirstSearch().getSize();
+        }
+        else if(testType == 'g')
+        {
+            result = frozen.breadthFirstSearch().getSize();
+        }
+        else if(testType == 'p')
+        {
+            result = frozen.parallelBreadthFirstSearch().getSize();
+        }
+        else if(testType == 's')
+        {
+            DSAShortestPaths paths = new DSAShortestPaths(frozen);
+            paths.fromSource(0);
+            result = paths.getSettledCount();
+        }
+        else if(testType == 'c')
+        {
+            result = makeGraph(n, graphType).freeze().getEdgeCount();
+        }
+        else if(testType == 'm')
+        {
+            result = graph.displayMatrix().length();
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unsupported test");
+        }
+        return result;
+    }
+
+    public static void main(String[] args)
+    {
+        if(args.length < 2)
+        {
+            usage();
+        }
+        else
+        {
+            int n = Integer.parseInt(args[0]);
+            for(int aa = 1; aa < args.length; aa++)
+            {
+                char traversalType = args[aa].charAt(0);
+                char graphType = args[aa].charAt(1);
+                DSAGraph graph = makeGraph(n, graphType);
+                DSAFrozenGraph frozen = graph.freeze();
+
+                for(int warmup = 0; warmup < WARMUP; warmup++)
+                {
+                    sink = runTest(n, graphType, graph, frozen, traversalType);
+                }
+                double runningTotal = 0.0;
+                for(int repeat = 0; repeat < REPEATS; repeat++)
+                {
+                    long startTime = System.nanoTime();
+                    long result = runTest(n, graphType, graph, frozen, traversalType);
+                    long endTime = System.nanoTime();
+                    sink = result;
+                    runningTotal += (endTime - startTime) / 1e9;
+                }
+                System.out.println(args[aa] + " " + n + " " + runningTotal / REPEATS);
+            }
+        }
+    }
+}
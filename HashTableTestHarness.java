@@ -0,0 +1,313 @@
+/* *
+ * Luke McDougall
+ *
+ * Testharness to time DSAHashTable operations over different key sets and
+ * table options. Output is in the same form as GraphTestHarness so
+ * runjava.sh can plot both.
+ *
+ * Each test is first run WARMUP times untimed so the JIT has compiled it,
+ * then REPEATS times with the mean taken as the running time. Both can be
+ * changed with -Dharness.warmup=w and -Dharness.repeats=r. Filling the
+ * table a test needs is done before the clock starts. Every test folds what
+ * it read into a result that is written to a volatile sink, so the JIT
+ * can't drop the work being timed as unused.
+ *
+ * A load factor can be given after a test as @load, e.g. gr@0.3. The table
+ * is then made big enough that the keys fill it to that load (capped at
+ * the table's own maximum load) instead of growing from small, so lookups
+ * can be timed at different loads.
+ *
+ * Test m times DSAConcurrentHashTable instead, with a thread count given
+ * after the test as /threads, e.g. mr/4. The n operations are split
+ * evenly over the threads, so on enough cores the time should fall as
+ * the thread count rises. Threads are started before the clock and all
+ * released at once.
+ *
+ * Last updated 18/10/2026
+ * */
+import java.util.*;
+import java.util.concurrent.*;
+
+public class HashTableTestHarness
+{
+    private static final int WARMUP = Integer.getInteger("harness.warmup", 2);    //Untimed runs first
+    private static final int REPEATS = Integer.getInteger("harness.repeats", 3);  //Timed runs averaged
+    private static final int PREFIX_LENGTH = 64; //Shared prefix of long keys
+    private static final int PUT_PERCENT = 20;   //Share of test m's operations that are puts
+
+    //Every test's result ends up here so its work can't be optimised away
+    private static volatile long sink;
+
+    private static void usage()
+    {
+        System.out.println(" Usage: java HashTableTestHarness n xy[o][@load][/threads] [xy[o][@load][/threads] ...]");
+        System.out.println("        where");
+        System.out.println("        n is number of keys");
+        System.out.println("        x is one of");
+        System.out.println("           p - put every key into a table that starts small");
+        System.out.println("           q - putAll every key into a table that starts small");
+        System.out.println("           g - get every key");
+        System.out.println("           c - containsKey for n keys that aren't there");
+        System.out.println("           r - remove every key");
+        System.out.println("           x - n random puts and removes on a full table");
+        System.out.println("           m - n random gets and puts (" + PUT_PERCENT + "% puts) on a full DSAConcurrentHashTable");
+        System.out.println("        y is one of");
+        System.out.println("           s - sequential keys, \"0\" to \"n-1\"");
+        System.out.println("           r - random keys");
+        System.out.println("           l - long keys, " + PREFIX_LENGTH + " shared characters then a number");
+        System.out.println("        o is DSAHashTable options 0-7, 0 if left out");
+        System.out.println("           1 incremental resize, 2 power of two, 4 Robin Hood, add to combine");
+        System.out.println("        load is the load factor the keys fill the table to for g, c, r and x");
+        System.out.println("        threads is how many threads share test m's operations, 1 if left out");
+    }
+
+    /* Function: makeKeys
+     * Import: int n, char keyType, String tag.
+     * Export: String[] keys.
+     * Makes n distinct keys of the passed type. Key sets made with different
+     * tags share no keys.
+     */
+    private static String[] makeKeys(int n, char keyType, String tag)
+    {
+        String[] keys = new String[n];
+        if(keyType == 's')
+        {
+            for(int i = 0; i < n; i++)
+            {
+                keys[i] = tag + i;
+            }
+        }
+        else if(keyType == 'r')
+        {
+            Random rand = new Random(n + tag.hashCode());
+            HashSet<String> used = new HashSet<String>();
+            int i = 0;
+            while(i < n)
+            {
+                String key = tag + Long.toString(rand.nextLong() & Long.MAX_VALUE, 36);
+                if(used.add(key))
+                {
+                    keys[i] = key;
+                    i++;
+                }
+            }
+        }
+        else if(keyType == 'l')
+        {
+            char[] prefix = new char[PREFIX_LENGTH];
+            Arrays.fill(prefix, 'k');
+            String start = new String(prefix) + tag;
+            for(int i = 0; i < n; i++)
+            {
+                keys[i] = start + i;
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unsupported key type");
+        }
+        return keys;
+    }
+
+    //Table holding every key, made with room for them at load if load is over 0
+    private static DSAHashTable<Integer> fill(String[] keys, Integer[] values, int options, double load)
+    {
+        int size = (load > 0.0) ? (int)Math.ceil(keys.length / load) : 1;
+        DSAHashTable<Integer> table = new DSAHashTable<Integer>(Math.max(1, size), options);
+        for(int i = 0; i < keys.length; i++)
+        {
+            table.put(keys[i], values[i]);
+        }
+        return table;
+    }
+
+    /* Function: runTest
+     * Import: char testType, String[] keys, String[] absent, Integer[] values, int options, double load.
+     * Export: double time.
+     * Sets up and runs the requested test once, returning the seconds taken
+     * by the test itself.
+     */
+    private static double runTest(char testType, String[] keys, String[] absent, Integer[] values, int options, double load)
+    {
+        DSAHashTable<Integer> table = null;
+        Random rand = new Random(keys.length);
+        long result = 0;
+        if(testType == 'g' || testType == 'c' || testType == 'r' || testType == 'x')
+        {
+            table = fill(keys, values, options, load);
+        }
+        long startTime = System.nanoTime();
+        if(testType == 'p')
+        {
+            table = new DSAHashTable<Integer>(1, options);
+            for(int i = 0; i < keys.length; i++)
+            {
+                table.put(keys[i], values[i]);
+            }
+        }
+        else if(testType == 'q')
+        {
+            table = new DSAHashTable<Integer>(1, options);
+            table.putAll(keys, values);
+        }
+        else if(testType == 'g')
+        {
+            for(int i = 0; i < keys.length; i++)
+            {
+                result += table.get(keys[i]);
+            }
+        }
+        else if(testType == 'c')
+        {
+            for(int i = 0; i < absent.length; i++)
+            {
+                result += table.containsKey(absent[i]) ? 1 : 0;
+            }
+        }
+        else if(testType == 'r')
+        {
+            for(int i = 0; i < keys.length; i++)
+            {
+                table.remove(keys[i]);
+            }
+        }
+        else if(testType == 'x')
+        {
+            //Removing then putting back a present key keeps the table full
+            for(int i = 0; i < keys.length; i++)
+            {
+                int k = rand.nextInt(keys.length);
+                table.remove(keys[k]);
+                table.put(keys[k], values[k]);
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unsupported test");
+        }
+        result += table.getSize();
+        long endTime = System.nanoTime();
+        sink = result;
+        return (endTime - startTime) / 1e9;
+    }
+
+    /* Function: runThreaded
+     * Import: String[] keys, Integer[] values, int threads.
+     * Export: double time.
+     *
+     * Fills a DSAConcurrentHashTable with every key, then has threads
+     * threads do keys.length random gets and puts between them, returning
+     * the seconds from releasing the threads until the last one finishes.
+     */
+    private static double runThreaded(final String[] keys, final Integer[] values, int threads)
+    {
+        final DSAConcurrentHashTable<Integer> table = new DSAConcurrentHashTable<Integer>(keys.length);
+        for(int i = 0; i < keys.length; i++)
+        {
+            table.put(keys[i], values[i]);
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Long>> results = new ArrayList<Future<Long>>();
+        long result = 0;
+        long startTime;
+        long endTime;
+        try
+        {
+            for(int t = 0; t < threads; t++)
+            {
+                final int ops = keys.length / threads + ((t < keys.length % threads) ? 1 : 0);
+                final Random rand = new Random(keys.length + t);
+                results.add(pool.submit(() ->
+                {
+                    long sum = 0;
+                    start.await();
+                    for(int i = 0; i < ops; i++)
+                    {
+                        int k = rand.nextInt(keys.length);
+                        if(rand.nextInt(100) < PUT_PERCENT)
+                        {
+                            table.put(keys[k], values[k]);
+                        }
+                        else
+                        {
+                            sum += table.get(keys[k]);
+                        }
+                    }
+                    return sum;
+                }));
+            }
+            startTime = System.nanoTime();
+            start.countDown();
+            for(Future<Long> threadResult : results)
+            {
+                result += threadResult.get();
+            }
+            endTime = System.nanoTime();
+        }
+        catch(InterruptedException | ExecutionException e)
+        {
+            throw new IllegalStateException("Threaded test failed", e);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        sink = result;
+        return (endTime - startTime) / 1e9;
+    }
+
+    //Runs one test, threaded or not
+    private static double time(char testType, String[] keys, String[] absent, Integer[] values, int options, double load, int threads)
+    {
+        return (testType == 'm') ? runThreaded(keys, values, threads) : runTest(testType, keys, absent, values, options, load);
+    }
+
+    public static void main(String[] args)
+    {
+        if(args.length < 2)
+        {
+            usage();
+        }
+        else
+        {
+            int n = Integer.parseInt(args[0]);
+            Integer[] values = new Integer[n];
+            for(int i = 0; i < n; i++)
+            {
+                values[i] = i;
+            }
+            for(int aa = 1; aa < args.length; aa++)
+            {
+                String[] spec = args[aa].split("/");
+                int threads = (spec.length > 1) ? Integer.parseInt(spec[1]) : 1;
+                String[] parts = spec[0].split("@");
+                char testType = parts[0].charAt(0);
+                char keyType = parts[0].charAt(1);
+                int options = (parts[0].length() > 2) ? parts[0].charAt(2) - '0' : 0;
+                double load = (parts.length > 1) ? Double.parseDouble(parts[1]) : 0.0;
+                if(parts.length > 1 && (load <= 0.0 || load > 1.0))
+                {
+                    throw new IllegalArgumentException("Load factor must be over 0 and at most 1");
+                }
+                if(threads < 1)
+                {
+                    throw new IllegalArgumentException("Thread count must be positive");
+                }
+                String[] keys = makeKeys(n, keyType, "");
+                String[] absent = makeKeys(n, keyType, "-");
+
+                for(int warmup = 0; warmup < WARMUP; warmup++)
+                {
+                    time(testType, keys, absent, values, options, load, threads);
+                }
+                double runningTotal = 0.0;
+                for(int repeat = 0; repeat < REPEATS; repeat++)
+                {
+                    runningTotal += time(testType, keys, absent, values, options, load, threads);
+                }
+                System.out.println(args[aa] + " " + n + " " + runningTotal / REPEATS);
+            }
+        }
+    }
+}
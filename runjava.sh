@@ -0,0 +1,121 @@
+#!/bin/sh
+
+#
+# Script to time the Java graph and hash table classes. Produces gnuplot
+# output the same way runpy.sh does, and also writes every result to a JSON
+# file so runs can be compared by other tools. Results are labelled with
+# the harness they came from, e.g. graph-dr or table-gr.
+#
+# Example Usage:
+#       ./runjava.sh > output.log ; gnuplot -persist output.log
+#
+
+
+# The "graphs" variable contains a list of test-graph pairs that are passed
+# to GraphTestHarness
+# First char: test
+# - d = depth first search
+# - b = breadth first search
+# - f = depth first search on frozen graph
+# - g = breadth first search on frozen graph
+# - p = parallel breadth first search on frozen graph
+# - s = shortest paths from vertex 0 on frozen graph
+# - c = construction
+# - m = adjacency matrix display (n^2, keep max small)
+#
+# Second char: graph shape
+# - h = hub
+# - l = line
+# - r = random
+# - w = random with weights
+#
+#graphs="dh bh fh gh dl bl fl gl dr br fr gr pr cr sr sw"
+graphs="dr br fr gr sw"
+
+# The "tables" variable contains a list of test-key-option triples that are
+# passed to HashTableTestHarness
+# First char: test
+# - p = put
+# - q = putAll
+# - g = get
+# - c = containsKey on absent keys
+# - r = remove
+# - x = mixed puts and removes
+# - m = mixed gets and puts on DSAConcurrentHashTable from several threads
+#
+# Second char: keys
+# - s = sequential
+# - r = random
+# - l = long shared prefix
+#
+# Optional third char: DSAHashTable options, 1 incremental resize,
+# 2 power of two, 4 Robin Hood, add to combine
+#
+# Optional @load: load factor the keys fill the table to for g, c, r and x,
+# capped at the table's maximum load (0.6, or 0.85 with Robin Hood)
+#
+# Optional /threads: threads sharing test m's operations, e.g. mr/4. The
+# mr/1 to mr/8 sweep shows how the concurrent table scales with cores
+#
+#tables="ps gs cs rs xs pr gr cr rr xr pl gl pr4 gr4 xr4 pr2 gr2 pr1 gr@0.2 gr@0.4 gr@0.6 gr4@0.8"
+tables="pr gr cr rr xr pr4 gr4 gr@0.2 gr@0.6 gr4@0.85 mr/1 mr/2 mr/4 mr/8"
+
+# The "min" and "max" variables contain the range of n passed to the
+# harnesses, doubling each time
+min=1024
+max=65536
+
+# Warmup and timed runs of each test, passed to both harnesses
+warmup=2
+repeats=3
+
+# Where the JSON results go
+out="out"
+json="$out/results.json"
+
+
+########################### DO NOT CHANGE BELOW THIS LINE ##################
+
+tempFile="/tmp/dsajava$$"
+classes="/tmp/dsajava$$.classes"
+
+runEm()
+    {
+    for i in `awk 'BEGIN{for(i='"$min"';i<='"$max"';i*=2)print i;exit}'`
+    do
+        if [ -n "$graphs" ]
+        then
+            java -cp "$classes" -Dharness.warmup=$warmup -Dharness.repeats=$repeats GraphTestHarness $i $graphs | sed 's/^/graph-/'
+        fi
+        if [ -n "$tables" ]
+        then
+            java -cp "$classes" -Dharness.warmup=$warmup -Dharness.repeats=$repeats HashTableTestHarness $i $tables | sed 's/^/table-/'
+        fi
+    done
+    }
+
+
+mkdir -p "$classes" "$out"
+javac -d "$classes" *.java || exit 1
+runEm > $tempFile
+
+# Each line is "harness-test n seconds"
+awk 'BEGIN{printf "[\n"}
+     {split($1, name, "-");
+      printf "%s  {\"harness\": \"%s\", \"test\": \"%s\", \"n\": %s, \"seconds\": %s}",
+             (NR > 1) ? ",\n" : "", name[1], name[2], $2, $3}
+     END{printf "\n]\n"}' $tempFile > "$json"
+
+tests="`echo $graphs | awk '{for(i=1;i<=NF;i++)printf" graph-%s",$i}'``echo $tables | awk '{for(i=1;i<=NF;i++)printf" table-%s",$i}'`"
+echo -n "plot"
+echo $tests | awk '{for(i=1;i<NF;i++)printf"\"-\" using 2:3 t \"%s\" w l,",$i}'
+echo $tests | awk '{i=NF;            printf"\"-\" using 2:3 t \"%s\" w l",$i}'
+echo ""
+
+for s in $tests
+do
+    grep "^$s " $tempFile
+    echo "e"
+done
+
+rm -rf $tempFile "$classes"